@@ -0,0 +1,70 @@
+package com.sb.hotel.booking.benchmark;
+
+import com.sb.hotel.booking.models.BookedRoom;
+import com.sb.hotel.booking.service.Impl.BookingServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory overlap checks of {@link BookingServiceImpl} against a room's booking list. The requested stay
+ * comes after every existing booking, so each check scans the whole list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AvailabilityCheckBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int bookings;
+
+    private BookingServiceImpl bookingService;
+    private List<BookedRoom> existingBookings;
+    private BookedRoom request;
+
+    @Setup
+    public void setUp() {
+        bookingService = BenchmarkServices.bookingService();
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        existingBookings = new ArrayList<>(bookings);
+        for (int i = 0; i < bookings; i++) {
+            LocalDate checkIn = start.plusDays(3L * i);
+            existingBookings.add(booking(checkIn, checkIn.plusDays(1)));
+        }
+        LocalDate after = start.plusDays(3L * bookings + 1);
+        request = booking(after, after.plusDays(2));
+    }
+
+    @Benchmark
+    public boolean isRoomAvailable() {
+        return bookingService.isRoomAvailable(request, existingBookings);
+    }
+
+    @Benchmark
+    public boolean roomIsAvailable() {
+        return bookingService.roomIsAvailable(request, existingBookings);
+    }
+
+    private static BookedRoom booking(LocalDate checkIn, LocalDate checkOut) {
+        BookedRoom booking = new BookedRoom();
+        booking.setCheckInDate(checkIn);
+        booking.setCheckOutDate(checkOut);
+        return booking;
+    }
+}
@@ -0,0 +1,105 @@
+package com.sb.hotel.booking.benchmark;
+
+import com.sb.hotel.booking.HotelBookingSystemApplication;
+import com.sb.hotel.booking.models.Room;
+import com.sb.hotel.booking.repository.RoomRepository;
+import com.sb.hotel.booking.request.BatchBookingItem;
+import com.sb.hotel.booking.service.BookingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A block of one-night stays booked with one {@link BookingService#saveBookings} call against the same block
+ * booked with one {@link BookingService#saveBooking} call per stay, against an in-memory H2 database. Every
+ * invocation books into a new room, so neither variant ever conflicts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchBookingBenchmark {
+
+    private static final LocalDate START = LocalDate.now().plusDays(30);
+
+    @Param({"50", "500"})
+    private int stays;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private RoomRepository roomRepository;
+    private List<BatchBookingItem> block;
+
+    @Setup
+    public void startApplication() {
+        context = new SpringApplicationBuilder(HotelBookingSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:batch-benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--spring.sql.init.mode=never",
+                        "--logging.level.root=WARN",
+                        "--file.upload-dir=target/benchmark-uploads");
+        bookingService = context.getBean(BookingService.class);
+        roomRepository = context.getBean(RoomRepository.class);
+    }
+
+    @TearDown
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void newRoom() {
+        Room room = new Room();
+        room.setHotelName("Benchmark Hotel");
+        room.setRoomType("BatchBenchmark");
+        room.setRoomPrice(BigDecimal.valueOf(120));
+        Long roomId = roomRepository.save(room).getId();
+
+        block = new ArrayList<>(stays);
+        for (int i = 0; i < stays; i++) {
+            LocalDate checkIn = START.plusDays(2L * i);
+            block.add(new BatchBookingItem(roomId, checkIn, checkIn.plusDays(1), "Benchmark Guest " + i,
+                    "benchmark" + i + "@example.com", 2, 0, 2));
+        }
+    }
+
+    @Benchmark
+    public List<String> batch() {
+        return bookingService.saveBookings(block);
+    }
+
+    @Benchmark
+    public List<String> singleCalls() {
+        List<String> codes = new ArrayList<>(stays);
+        for (BatchBookingItem item : block) {
+            codes.add(bookingService.saveBooking(item.getRoomId(), item.toBookedRoom()));
+        }
+        return codes;
+    }
+}
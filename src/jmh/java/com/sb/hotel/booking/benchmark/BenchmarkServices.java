@@ -0,0 +1,32 @@
+package com.sb.hotel.booking.benchmark;
+
+import com.sb.hotel.booking.service.Impl.BookingServiceImpl;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * Services for benchmarks that only exercise their in-memory logic. Every dependency is left null, so the
+ * benchmarks need no changes when a service gains a dependency; a benchmark that reaches one fails fast.
+ */
+final class BenchmarkServices {
+
+    private BenchmarkServices() {
+    }
+
+    static BookingServiceImpl bookingService() {
+        return withoutDependencies(BookingServiceImpl.class);
+    }
+
+    private static <T> T withoutDependencies(Class<T> type) {
+        Constructor<?>[] constructors = type.getConstructors();
+        if (constructors.length != 1) {
+            throw new IllegalStateException(type.getSimpleName() + " must have exactly one public constructor");
+        }
+        Constructor<?> constructor = constructors[0];
+        try {
+            return type.cast(constructor.newInstance(new Object[constructor.getParameterCount()]));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create " + type.getSimpleName(), e);
+        }
+    }
+}
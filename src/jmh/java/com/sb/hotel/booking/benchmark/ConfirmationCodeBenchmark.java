@@ -0,0 +1,47 @@
+package com.sb.hotel.booking.benchmark;
+
+import com.sb.hotel.booking.service.Impl.ConfirmationCodeGenerator;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Confirmation code generation: the {@link ConfirmationCodeGenerator} against the random numeric codes it
+ * replaced, on one thread and under contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfirmationCodeBenchmark {
+
+    private final ConfirmationCodeGenerator generator = new ConfirmationCodeGenerator(1);
+
+    @Benchmark
+    public String legacyRandomNumeric() {
+        return RandomStringUtils.randomNumeric(10);
+    }
+
+    @Benchmark
+    public String generator() {
+        return generator.next();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String generatorContended() {
+        return generator.next();
+    }
+}
@@ -0,0 +1,86 @@
+package com.sb.hotel.booking.benchmark;
+
+import com.sb.hotel.booking.availability.OccupancyCalendar;
+import com.sb.hotel.booking.models.BookedRoom;
+import com.sb.hotel.booking.service.Impl.BookingServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A room booked one night in three across the whole {@link OccupancyCalendar} window, checked for a stay
+ * at the end of the window: the list scan of {@link BookingServiceImpl#isRoomAvailable} against the
+ * bitset, both in memory and decoded from its stored bytes as the booking path does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OccupancyCalendarBenchmark {
+
+    @Param({"1", "7", "30"})
+    private int nights;
+
+    private BookingServiceImpl bookingService;
+    private List<BookedRoom> existingBookings;
+    private BookedRoom request;
+    private OccupancyCalendar calendar;
+    private byte[] stored;
+    private long from;
+    private long to;
+
+    @Setup
+    public void setUp() {
+        bookingService = BenchmarkServices.bookingService();
+        long origin = OccupancyCalendar.originFor(LocalDate.of(2024, 1, 1));
+        calendar = new OccupancyCalendar(origin);
+        existingBookings = new ArrayList<>();
+        int end = OccupancyCalendar.DAYS - nights;
+        for (int day = 0; day + 1 < end; day += 3) {
+            LocalDate checkIn = LocalDate.ofEpochDay(origin + day);
+            existingBookings.add(booking(checkIn, checkIn.plusDays(1)));
+            calendar.occupy(checkIn, checkIn.plusDays(1));
+        }
+        stored = calendar.toBytes();
+        from = origin + end;
+        to = from + nights;
+        request = booking(LocalDate.ofEpochDay(from), LocalDate.ofEpochDay(to));
+    }
+
+    @Benchmark
+    public boolean listScan() {
+        return bookingService.isRoomAvailable(request, existingBookings);
+    }
+
+    @Benchmark
+    public boolean bitset() {
+        return calendar.isFree(from, to);
+    }
+
+    @Benchmark
+    public boolean bitsetFromBytes() {
+        return OccupancyCalendar.fromBytes(calendar.getOrigin(), stored).isFree(from, to);
+    }
+
+    private static BookedRoom booking(LocalDate checkIn, LocalDate checkOut) {
+        BookedRoom booking = new BookedRoom();
+        booking.setCheckInDate(checkIn);
+        booking.setCheckOutDate(checkOut);
+        return booking;
+    }
+}
@@ -0,0 +1,88 @@
+package com.sb.hotel.booking.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sb.hotel.booking.Response.CursorPage;
+import com.sb.hotel.booking.Response.RoomResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building and serializing room listings: the Base64 photo payload rooms used to carry inline,
+ * the thumbnail URL that replaced it, and Jackson serialization of a page of {@link RoomResponse}s.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoomResponseBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Photo {
+
+        @Param({"64", "512"})
+        private int photoKb;
+
+        private byte[] bytes;
+
+        @Setup
+        public void setUp() {
+            bytes = new byte[photoKb * 1024];
+            new Random(42).nextBytes(bytes);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Page {
+
+        @Param({"20", "100"})
+        private int pageSize;
+
+        private ObjectMapper objectMapper;
+        private CursorPage<RoomResponse> rooms;
+
+        @Setup
+        public void setUp() {
+            objectMapper = Jackson2ObjectMapperBuilder.json().build();
+            List<RoomResponse> content = new ArrayList<>(pageSize);
+            for (long id = 1; id <= pageSize; id++) {
+                content.add(new RoomResponse(id, "Deluxe", BigDecimal.valueOf(199.99), false,
+                        RoomResponse.thumbnailUrl(id, "ab/" + id + ".jpg"), null));
+            }
+            rooms = new CursorPage<>(content, pageSize, true, "MTIz");
+        }
+    }
+
+    @Benchmark
+    public String legacyBase64Photo(Photo photo) {
+        return Base64.getEncoder().encodeToString(photo.bytes);
+    }
+
+    @Benchmark
+    public String thumbnailUrl() {
+        return RoomResponse.thumbnailUrl(42L, "ab/42.jpg");
+    }
+
+    @Benchmark
+    public byte[] serializeRoomPage(Page page) throws JsonProcessingException {
+        return page.objectMapper.writeValueAsBytes(page.rooms);
+    }
+}
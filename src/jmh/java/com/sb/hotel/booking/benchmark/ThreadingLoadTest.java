@@ -0,0 +1,252 @@
+package com.sb.hotel.booking.benchmark;
+
+import com.sb.hotel.booking.HotelBookingSystemApplication;
+import com.sb.hotel.booking.availability.RoomAvailabilityIndex;
+import com.sb.hotel.booking.models.Room;
+import com.sb.hotel.booking.repository.RoomRepository;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Load-test driver comparing platform and virtual threads on {@code GET /api/available-rooms} and
+ * {@code POST /bookings/room/booking}.
+ * <p>
+ * For each threading mode it starts the application on a random port against an in-memory H2 database
+ * (standing in for PostgreSQL), seeds rooms, runs a warm-up and then a timed run of closed-loop clients,
+ * and prints throughput and p50/p99/max latency per endpoint. Results are also written as JSON to
+ * {@code target/load-test-result.json}.
+ * <pre>
+ * mvn -Pjmh -DskipTests test-compile exec:exec@load-test [-Dload.args="--clients=400 --seconds=30"]
+ * </pre>
+ * Options: {@code --clients} (concurrent clients, default 200), {@code --seconds} (measured run, default 20),
+ * {@code --warmup} (default 5), {@code --rooms} (default 50), {@code --tomcat-threads} (platform pool size,
+ * default 50). Virtual threads need Java 21+; on older runtimes the "virtual" run reports the platform
+ * fallback.
+ */
+public class ThreadingLoadTest {
+
+    private static final String[] ROOM_TYPES = {"Single", "Double", "Suite"};
+
+    private final int clients;
+    private final int seconds;
+    private final int warmupSeconds;
+    private final int rooms;
+    private final int tomcatThreads;
+
+    private ThreadingLoadTest(String[] args) {
+        clients = option(args, "clients", 200);
+        seconds = option(args, "seconds", 20);
+        warmupSeconds = option(args, "warmup", 5);
+        rooms = option(args, "rooms", 50);
+        tomcatThreads = option(args, "tomcat-threads", 50);
+    }
+
+    public static void main(String[] args) throws Exception {
+        // DevTools would restart the application in a separate class loader, skewing the first run
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ThreadingLoadTest loadTest = new ThreadingLoadTest(args);
+        List<Result> results = new ArrayList<>();
+        results.addAll(loadTest.run(false));
+        results.addAll(loadTest.run(true));
+
+        System.out.printf("%n%-9s %-16s %10s %9s %9s %9s %8s%n", "threads", "endpoint", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (Result result : results) {
+            System.out.println(result.line());
+        }
+        Path out = Path.of("target", "load-test-result.json");
+        Files.createDirectories(out.getParent());
+        Files.writeString(out, results.stream().map(Result::json).toList().toString());
+        if (Runtime.version().feature() < 21) {
+            System.out.println("* Java " + Runtime.version().feature() + " has no virtual threads; the run fell back to platform threads");
+        }
+        System.out.println("Results written to " + out.toAbsolutePath());
+        System.exit(0);
+    }
+
+    private List<Result> run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        List<String> appArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:load-" + mode + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.generate_statistics=false",
+                "--spring.sql.init.mode=never",
+                "--logging.level.root=WARN",
+                "--file.upload-dir=target/load-test-uploads",
+                "--audit.log.dir=target/load-test-audit-" + mode,
+                "--server.tomcat.threads.max=" + tomcatThreads));
+        if (virtualThreads) {
+            appArgs.add("--spring.profiles.active=virtual-threads");
+        }
+        ConfigurableApplicationContext context = SpringApplication.run(HotelBookingSystemApplication.class,
+                appArgs.toArray(String[]::new));
+        try {
+            List<Long> roomIds = seed(context);
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            String label = virtualThreads && !Threading.VIRTUAL.isActive(context.getEnvironment()) ? mode + "*" : mode;
+
+            drive(baseUrl, roomIds, warmupSeconds, label);
+            return drive(baseUrl, roomIds, seconds, label);
+        } finally {
+            context.close();
+        }
+    }
+
+    private List<Long> seed(ConfigurableApplicationContext context) {
+        RoomRepository roomRepository = context.getBean(RoomRepository.class);
+        List<Long> roomIds = new ArrayList<>(rooms);
+        for (int i = 0; i < rooms; i++) {
+            Room room = new Room();
+            room.setHotelName("Load Test Hotel");
+            room.setRoomType(ROOM_TYPES[i % ROOM_TYPES.length]);
+            room.setRoomPrice(BigDecimal.valueOf(100 + i));
+            roomIds.add(roomRepository.save(room).getId());
+        }
+        context.getBean(RoomAvailabilityIndex.class).rebuild();
+        return roomIds;
+    }
+
+    private List<Result> drive(String baseUrl, List<Long> roomIds, int durationSeconds, String mode) throws InterruptedException {
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        Recorder search = new Recorder();
+        Recorder booking = new Recorder();
+        long deadline = System.nanoTime() + Duration.ofSeconds(durationSeconds).toNanos();
+        CountDownLatch done = new CountDownLatch(clients);
+        LocalDate today = LocalDate.now();
+
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int i = 0;
+                try {
+                    while (System.nanoTime() < deadline) {
+                        LocalDate checkIn = today.plusDays(1 + random.nextInt(720));
+                        LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(4));
+                        if (i++ % 4 == 3) {
+                            Long roomId = roomIds.get(random.nextInt(roomIds.size()));
+                            String body = String.format(Locale.ROOT, "{\"checkInDate\":\"%s\",\"checkOutDate\":\"%s\","
+                                    + "\"guestFullName\":\"Load Guest %d\",\"guestEmail\":\"load%d@example.com\","
+                                    + "\"numOfAdults\":2,\"numOfChildren\":0,\"totalNumOfGuest\":2}", checkIn, checkOut, client, client);
+                            send(http, HttpRequest.newBuilder(URI.create(baseUrl + "/bookings/room/booking?roomId=" + roomId))
+                                    .header("Content-Type", "application/json")
+                                    .POST(HttpRequest.BodyPublishers.ofString(body)).build(), booking);
+                        } else {
+                            String type = ROOM_TYPES[random.nextInt(ROOM_TYPES.length)];
+                            send(http, HttpRequest.newBuilder(URI.create(baseUrl + "/api/available-rooms?checkInDate=" + checkIn
+                                    + "&checkOutDate=" + checkOut + "&roomType=" + type)).GET().build(), search);
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-client-" + c);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        done.await();
+        return List.of(search.result(mode, "available-rooms", durationSeconds),
+                booking.result(mode, "booking", durationSeconds));
+    }
+
+    private static void send(HttpClient http, HttpRequest request, Recorder recorder) {
+        long started = System.nanoTime();
+        try {
+            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+            // 409 is a booking conflict, an expected outcome rather than a failure
+            recorder.record(System.nanoTime() - started, response.statusCode() < 400 || response.statusCode() == 409);
+        } catch (IOException e) {
+            recorder.record(System.nanoTime() - started, false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int option(String[] args, String name, int defaultValue) {
+        String prefix = "--" + name + "=";
+        return Arrays.stream(args).filter(arg -> arg.startsWith(prefix))
+                .map(arg -> Integer.parseInt(arg.substring(prefix.length())))
+                .findFirst().orElse(defaultValue);
+    }
+
+    /**
+     * Latencies of one endpoint, collected from all client threads.
+     */
+    private static final class Recorder {
+
+        private final List<long[]> chunks = new ArrayList<>();
+        private final ThreadLocal<long[]> current = new ThreadLocal<>();
+        private final ThreadLocal<int[]> position = ThreadLocal.withInitial(() -> new int[1]);
+        private final AtomicLong errors = new AtomicLong();
+        private final ReentrantLock chunksLock = new ReentrantLock();
+
+        void record(long nanos, boolean ok) {
+            if (!ok) {
+                errors.incrementAndGet();
+            }
+            long[] chunk = current.get();
+            int[] pos = position.get();
+            if (chunk == null || pos[0] == chunk.length) {
+                chunk = new long[4096];
+                Arrays.fill(chunk, -1);
+                current.set(chunk);
+                pos[0] = 0;
+                chunksLock.lock();
+                try {
+                    chunks.add(chunk);
+                } finally {
+                    chunksLock.unlock();
+                }
+            }
+            chunk[pos[0]++] = nanos;
+        }
+
+        Result result(String mode, String endpoint, int seconds) {
+            long[] all = chunks.stream().flatMapToLong(Arrays::stream).filter(nanos -> nanos >= 0).sorted().toArray();
+            if (all.length == 0) {
+                return new Result(mode, endpoint, 0, 0, 0, 0, errors.get());
+            }
+            return new Result(mode, endpoint, (double) all.length / seconds,
+                    percentile(all, 0.50), percentile(all, 0.99), all[all.length - 1] / 1e6, errors.get());
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+        }
+    }
+
+    private record Result(String mode, String endpoint, double throughput, double p50, double p99, double max, long errors) {
+
+        String line() {
+            return String.format(Locale.ROOT, "%-9s %-16s %10.1f %9.2f %9.2f %9.2f %8d", mode, endpoint, throughput, p50, p99, max, errors);
+        }
+
+        String json() {
+            return String.format(Locale.ROOT, "{\"threads\":\"%s\",\"endpoint\":\"%s\",\"throughput\":%.1f,"
+                    + "\"p50Ms\":%.3f,\"p99Ms\":%.3f,\"maxMs\":%.3f,\"errors\":%d}", mode, endpoint, throughput, p50, p99, max, errors);
+        }
+    }
+}
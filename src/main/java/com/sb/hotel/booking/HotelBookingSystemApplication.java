@@ -2,8 +2,11 @@ package com.sb.hotel.booking;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 
-@SpringBootApplication
+// R2DBC only serves reactive reads and is set up in R2dbcConfig; Boot's R2DBC setup would displace JDBC/JPA
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
 public class HotelBookingSystemApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,37 @@
+package com.sb.hotel.booking.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Availability and lowest price of a fixed-length stay for every check-in date in a window.
+ */
+@Getter
+@AllArgsConstructor
+public class AvailabilityCalendar {
+
+    private final LocalDate from;
+    private final LocalDate to;
+    private final int nights;
+    private final String roomType;
+    private final List<Day> days;
+
+    /**
+     * One possible check-in date. The cheapest fields are null when no room is free for the whole stay.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Day {
+
+        private final LocalDate checkInDate;
+        private final LocalDate checkOutDate;
+        private final int availableRooms;
+        private final Long cheapestRoomId;
+        private final BigDecimal cheapestNightlyPrice;
+        private final BigDecimal cheapestTotalPrice;
+    }
+}
@@ -0,0 +1,45 @@
+package com.sb.hotel.booking.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One slice of a keyset-paginated listing. There is no total count; clients pass
+ * {@code nextCursor} back as the {@code after} parameter to get the following slice.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    public static final int MAX_SIZE = 100;
+
+    private final List<T> content;
+    private final int size;
+    private final boolean hasNext;
+    private final String nextCursor;
+
+    /**
+     * Clamps a requested page size to [1, {@link #MAX_SIZE}].
+     */
+    public static int boundedSize(int requested) {
+        return Math.max(1, Math.min(requested, MAX_SIZE));
+    }
+
+    /**
+     * Builds a page from a query that fetched up to {@code size + 1} rows; the extra row only signals that
+     * another page exists and is dropped.
+     * @param rows the fetched rows
+     * @param size the requested page size
+     * @param cursorOf encodes the cursor of a row
+     * @return the page
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, String> cursorOf) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(content.get(content.size() - 1)) : null;
+        return new CursorPage<>(List.copyOf(content), size, hasNext, nextCursor);
+    }
+}
@@ -0,0 +1,44 @@
+package com.sb.hotel.booking.Response;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Encodes keyset positions such as {@code (id)} or {@code (checkInDate, bookingId)} as opaque URL-safe tokens.
+ */
+public final class CursorToken {
+
+    private static final String SEPARATOR = "|";
+
+    private CursorToken() {
+    }
+
+    public static String encode(Object... parts) {
+        String raw = Arrays.stream(parts).map(String::valueOf).collect(Collectors.joining(SEPARATOR));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode(Object...)}.
+     * @param token the token
+     * @param expectedParts the number of parts the token must contain
+     * @return the parts
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static String[] decode(String token, int expectedParts) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+        String[] parts = raw.split(Pattern.quote(SEPARATOR), -1);
+        if (parts.length != expectedParts) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+        return parts;
+    }
+}
@@ -19,7 +19,7 @@ public class RoomResponse {
     private String roomType;
     private BigDecimal roomPrice;
     private boolean isBooked;
-    private String photoBase64;
+    private String thumbnailUrl;
     private List<com.sb.hotel.booking.response.BookingResponse> bookings; // List of booking responses
 
     public RoomResponse(Long id, String roomType, BigDecimal roomPrice, boolean isBooked, List<BookingResponse> bookings) {
@@ -30,5 +30,15 @@ public class RoomResponse {
         this.bookings = bookings;
     }
 
+    /**
+     * URL of the room's thumbnail, or null if the room has no photo.
+     * @param roomId the ID of the room
+     * @param photoKey the key of the room's photo
+     * @return the thumbnail URL
+     */
+    public static String thumbnailUrl(Long roomId, String photoKey) {
+        return photoKey != null ? "/api/room-photo/" + roomId + "/thumbnail" : null;
+    }
+
     // Getters and setters
 }
@@ -0,0 +1,27 @@
+package com.sb.hotel.booking.audit;
+
+import com.sb.hotel.booking.event.BookingChangedEvent;
+import com.sb.hotel.booking.models.BookingOutboxEvent;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * One booking change in the audit log.
+ * @param id the outbox ID; increases with commit order on a single node only, and the log is at-least-once,
+ *           so replay consumers should tolerate an event seen twice
+ * @param type what happened to the booking
+ * @param bookingId the booking
+ * @param roomId the room the booking is in after the change, or null if it had none
+ * @param checkInDate the check-in date after the change
+ * @param checkOutDate the check-out date after the change
+ * @param occurredAt when the change was made
+ */
+public record BookingAuditRecord(long id, BookingChangedEvent.Type type, long bookingId, Long roomId,
+                                 LocalDate checkInDate, LocalDate checkOutDate, Instant occurredAt) {
+
+    public static BookingAuditRecord of(BookingOutboxEvent event) {
+        return new BookingAuditRecord(event.getId(), event.getType(), event.getBookingId(), event.getRoomId(),
+                event.getCheckInDate(), event.getCheckOutDate(), event.getOccurredAt());
+    }
+}
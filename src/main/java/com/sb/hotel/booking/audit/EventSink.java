@@ -0,0 +1,32 @@
+package com.sb.hotel.booking.audit;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Where the outbox relay appends booking changes. The default is {@link SegmentFileEventSink}; declaring
+ * another {@code EventSink} bean (e.g. one that publishes to a message broker) replaces it.
+ * <p>
+ * With several nodes, each node's relay claims outbox rows with {@code SKIP LOCKED} and appends them to its
+ * own sink, so the default sink spreads the events across each node's local {@code audit/} directory. No
+ * single {@link #replay} then sees the full history, and events of one booking may sit on different nodes.
+ * A deployment with more than one node should declare a shared sink instead.
+ */
+public interface EventSink {
+
+    /**
+     * Appends a batch of events, in order. The outbox rows are only deleted once this returns, so a sink
+     * must not return before the events are durable.
+     * @param records the events
+     * @throws IOException if the events could not be written; the batch is retried
+     */
+    void append(List<BookingAuditRecord> records) throws IOException;
+
+    /**
+     * Reads every event appended so far, oldest first, e.g. to rebuild a projection.
+     * @param consumer receives the events
+     * @throws IOException if the log could not be read
+     */
+    void replay(Consumer<BookingAuditRecord> consumer) throws IOException;
+}
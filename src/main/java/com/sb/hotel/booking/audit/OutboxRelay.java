@@ -0,0 +1,75 @@
+package com.sb.hotel.booking.audit;
+
+import com.sb.hotel.booking.models.BookingOutboxEvent;
+import com.sb.hotel.booking.repository.BookingOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Drains the booking outbox into the {@link EventSink} in the background, oldest events first. Each batch is
+ * appended and then deleted in one transaction; if the transaction fails after the append, the batch is
+ * appended again on the next run, so the log is at-least-once.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "audit.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private final BookingOutboxRepository outboxRepository;
+    private final EventSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public OutboxRelay(BookingOutboxRepository outboxRepository, EventSink sink, TransactionTemplate transactionTemplate,
+                       @Value("${audit.relay.batch-size:500}") int batchSize) {
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Relays batches until the outbox is empty.
+     * @return the number of events relayed
+     */
+    @Scheduled(fixedDelayString = "${audit.relay.interval-ms:200}", initialDelayString = "${audit.relay.interval-ms:200}")
+    public int relay() {
+        int relayed = 0;
+        try {
+            int batch;
+            do {
+                batch = relayBatch();
+                relayed += batch;
+            } while (batch == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Relaying booking events to the audit log failed, retrying on the next run", e);
+        }
+        return relayed;
+    }
+
+    private int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            List<BookingOutboxEvent> events = outboxRepository.findOldestForUpdate(Limit.of(batchSize));
+            if (events.isEmpty()) {
+                return 0;
+            }
+            try {
+                sink.append(events.stream().map(BookingAuditRecord::of).toList());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            outboxRepository.deleteAllInBatch(events);
+            return events.size();
+        });
+        return relayed == null ? 0 : relayed;
+    }
+}
@@ -0,0 +1,29 @@
+package com.sb.hotel.booking.audit;
+
+import com.sb.hotel.booking.event.BookingChangedEvent;
+import com.sb.hotel.booking.models.BookingOutboxEvent;
+import com.sb.hotel.booking.repository.BookingOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Writes every booking change to the outbox inside the transaction that makes it. The insert is batched with
+ * the booking's own, so the booking path pays one more row rather than a write to the log.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    private final BookingOutboxRepository outboxRepository;
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onBookingChanged(BookingChangedEvent event) {
+        outboxRepository.save(new BookingOutboxEvent(event, Instant.now()));
+    }
+}
@@ -0,0 +1,239 @@
+package com.sb.hotel.booking.audit;
+
+import com.sb.hotel.booking.event.BookingChangedEvent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only audit log in a directory of fixed-size, memory-mapped segment files
+ * ({@code segment-0000000000.log}, {@code segment-0000000001.log}, ...). A new segment is started when the
+ * next record does not fit; old segments are never rewritten.
+ * <p>
+ * Each record is {@code [int length][int CRC-32][payload]}. The payload stores the event type as a fixed code
+ * (see {@link #typeCode}), not its position in the enum, so reordering the enum does not change old records. A segment's data ends at the first zero length or
+ * at a record whose checksum does not match, as left by a write cut short by a crash; the next append
+ * overwrites it. Every batch is forced to disk before {@link #append} returns.
+ * <p>
+ * One sink per directory: a {@code lock} file keeps a second one, in this or another process, from opening it.
+ */
+public class SegmentFileEventSink implements EventSink, Closeable {
+
+    private static final byte FORMAT = 1;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int PAYLOAD_BYTES = 2 + 6 * Long.BYTES;
+    private static final long NO_ROOM = 0L;
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FileChannel lockChannel;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private int segmentIndex;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    /**
+     * Opens the log, continuing the last segment after its last intact record.
+     * @param directory where the segments are kept; created if missing
+     * @param segmentSize the size of each segment in bytes
+     * @throws IOException if the last segment could not be opened
+     */
+    public SegmentFileEventSink(Path directory, int segmentSize) throws IOException {
+        if (segmentSize < HEADER_BYTES + PAYLOAD_BYTES + Integer.BYTES) {
+            throw new IllegalArgumentException("Segments must hold at least one record: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        lockChannel = FileChannel.open(directory.resolve("lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (!tryLock(lockChannel)) {
+            lockChannel.close();
+            throw new IllegalStateException("The audit log in " + directory + " is already open");
+        }
+        List<Path> segments = segments();
+        open(segments.isEmpty() ? 0 : indexOf(segments.get(segments.size() - 1)));
+        buffer.position(endOfData(buffer));
+    }
+
+    @Override
+    public void append(List<BookingAuditRecord> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(PAYLOAD_BYTES);
+        CRC32 crc = new CRC32();
+        lock.lock();
+        try {
+            for (BookingAuditRecord record : records) {
+                encode(record, payload.clear());
+                crc.reset();
+                crc.update(payload.array());
+                if (buffer.remaining() < HEADER_BYTES + PAYLOAD_BYTES) {
+                    rotate();
+                }
+                buffer.putInt(PAYLOAD_BYTES).putInt((int) crc.getValue()).put(payload.array());
+            }
+            // Ends the data explicitly, in case the rest of the segment holds a record cut short by a crash
+            if (buffer.remaining() >= Integer.BYTES) {
+                buffer.putInt(buffer.position(), 0);
+            }
+            buffer.force();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void replay(Consumer<BookingAuditRecord> consumer) throws IOException {
+        lock.lock();
+        try {
+            for (Path segment : segments()) {
+                try (FileChannel readChannel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                    ByteBuffer data = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+                    int end = endOfData(data);
+                    data.position(0);
+                    while (data.position() < end) {
+                        int length = data.getInt();
+                        data.getInt();
+                        consumer.accept(decode(data.slice(data.position(), length)));
+                        data.position(data.position() + length);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            buffer.force();
+            channel.close();
+            lockChannel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean tryLock(FileChannel channel) throws IOException {
+        try {
+            FileLock lock = channel.tryLock();
+            return lock != null;
+        } catch (OverlappingFileLockException e) {
+            return false;
+        }
+    }
+
+    private void rotate() throws IOException {
+        buffer.force();
+        channel.close();
+        open(segmentIndex + 1);
+    }
+
+    private void open(int index) throws IOException {
+        segmentIndex = index;
+        channel = FileChannel.open(directory.resolve(String.format("segment-%010d.log", index)),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().matches("segment-\\d{10}\\.log")).sorted().toList();
+        }
+    }
+
+    private static int indexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring("segment-".length(), name.length() - ".log".length()));
+    }
+
+    /**
+     * The position after the last intact record of a segment.
+     */
+    private static int endOfData(ByteBuffer data) {
+        CRC32 crc = new CRC32();
+        int position = 0;
+        while (data.limit() - position >= HEADER_BYTES) {
+            int length = data.getInt(position);
+            if (length <= 0 || length > data.limit() - position - HEADER_BYTES) {
+                break;
+            }
+            crc.reset();
+            crc.update(data.slice(position + HEADER_BYTES, length));
+            if ((int) crc.getValue() != data.getInt(position + Integer.BYTES)) {
+                break;
+            }
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    private static void encode(BookingAuditRecord record, ByteBuffer payload) {
+        payload.put(FORMAT)
+                .put(typeCode(record.type()))
+                .putLong(record.id())
+                .putLong(record.bookingId())
+                .putLong(record.roomId() == null ? NO_ROOM : record.roomId())
+                .putLong(record.checkInDate() == null ? NO_DATE : record.checkInDate().toEpochDay())
+                .putLong(record.checkOutDate() == null ? NO_DATE : record.checkOutDate().toEpochDay())
+                .putLong(record.occurredAt().toEpochMilli());
+    }
+
+    private static BookingAuditRecord decode(ByteBuffer payload) {
+        byte format = payload.get();
+        if (format != FORMAT) {
+            throw new IllegalStateException("Unknown audit record format: " + format);
+        }
+        BookingChangedEvent.Type type = typeOf(payload.get());
+        long id = payload.getLong();
+        long bookingId = payload.getLong();
+        long roomId = payload.getLong();
+        long checkIn = payload.getLong();
+        long checkOut = payload.getLong();
+        return new BookingAuditRecord(id, type, bookingId, roomId == NO_ROOM ? null : roomId,
+                checkIn == NO_DATE ? null : LocalDate.ofEpochDay(checkIn),
+                checkOut == NO_DATE ? null : LocalDate.ofEpochDay(checkOut),
+                Instant.ofEpochMilli(payload.getLong()));
+    }
+
+    /**
+     * The code stored for an event type. Part of the file format: existing codes must never change, and a new
+     * type needs a new code.
+     */
+    static byte typeCode(BookingChangedEvent.Type type) {
+        return switch (type) {
+            case CREATED -> 0;
+            case UPDATED -> 1;
+            case CANCELLED -> 2;
+        };
+    }
+
+    private static BookingChangedEvent.Type typeOf(byte code) {
+        return switch (code) {
+            case 0 -> BookingChangedEvent.Type.CREATED;
+            case 1 -> BookingChangedEvent.Type.UPDATED;
+            case 2 -> BookingChangedEvent.Type.CANCELLED;
+            default -> throw new IllegalStateException("Unknown audit record type: " + code);
+        };
+    }
+}
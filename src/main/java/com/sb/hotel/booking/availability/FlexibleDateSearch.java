@@ -0,0 +1,115 @@
+package com.sb.hotel.booking.availability;
+
+import com.sb.hotel.booking.Response.AvailabilityCalendar;
+import com.sb.hotel.booking.repository.projection.BookingIntervalView;
+import com.sb.hotel.booking.repository.projection.RoomSummaryView;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Computes every feasible check-in date of every room within a window from one read of the booking intervals.
+ * <p>
+ * Each room gets a bitset with one bit per night of the window that is sold. Sweeping it backwards gives the
+ * run of free nights starting on each day, and a check-in day is feasible when that run covers the stay.
+ * Rooms are independent, so large searches sweep them in parallel on the common fork/join pool.
+ */
+public final class FlexibleDateSearch {
+
+    private static final int PARALLEL_THRESHOLD = 256;
+
+    /**
+     * Lowest price first, rooms without a price last, then lowest ID.
+     */
+    private static final Comparator<RoomSummaryView> CHEAPEST_FIRST = Comparator
+            .comparing(RoomSummaryView::getRoomPrice, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(RoomSummaryView::getId);
+
+    private FlexibleDateSearch() {
+    }
+
+    /**
+     * Builds the calendar of a window.
+     * @param from the first check-in date
+     * @param to the last check-in date
+     * @param nights the length of the stay
+     * @param roomType the room type that was searched, echoed in the result
+     * @param rooms the rooms to consider
+     * @param intervals the bookings of those rooms; bookings of other rooms are ignored
+     * @return one day per check-in date from {@code from} to {@code to}
+     */
+    public static AvailabilityCalendar calendar(LocalDate from, LocalDate to, int nights, String roomType,
+                                                List<RoomSummaryView> rooms, List<BookingIntervalView> intervals) {
+        int checkInDays = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        int horizon = checkInDays + nights - 1;
+        long firstDay = from.toEpochDay();
+        Map<Long, List<BookingIntervalView>> intervalsByRoom = intervals.stream()
+                .filter(interval -> interval.getRoomId() != null)
+                .collect(Collectors.groupingBy(BookingIntervalView::getRoomId));
+
+        Stream<RoomSummaryView> roomStream = rooms.size() >= PARALLEL_THRESHOLD ? rooms.parallelStream() : rooms.stream();
+        List<RoomCheckIns> checkIns = roomStream
+                .map(room -> new RoomCheckIns(room, feasibleCheckIns(
+                        intervalsByRoom.getOrDefault(room.getId(), List.of()), firstDay, horizon, checkInDays, nights)))
+                .toList();
+
+        int[] availableRooms = new int[checkInDays];
+        RoomSummaryView[] cheapest = new RoomSummaryView[checkInDays];
+        for (RoomCheckIns room : checkIns) {
+            for (int day = room.days().nextSetBit(0); day >= 0; day = room.days().nextSetBit(day + 1)) {
+                availableRooms[day]++;
+                if (cheapest[day] == null || CHEAPEST_FIRST.compare(room.room(), cheapest[day]) < 0) {
+                    cheapest[day] = room.room();
+                }
+            }
+        }
+
+        List<AvailabilityCalendar.Day> days = new ArrayList<>(checkInDays);
+        BigDecimal stayLength = BigDecimal.valueOf(nights);
+        for (int day = 0; day < checkInDays; day++) {
+            LocalDate checkIn = from.plusDays(day);
+            RoomSummaryView room = cheapest[day];
+            days.add(new AvailabilityCalendar.Day(checkIn, checkIn.plusDays(nights), availableRooms[day],
+                    room != null ? room.getId() : null,
+                    room != null ? room.getRoomPrice() : null,
+                    room != null && room.getRoomPrice() != null ? room.getRoomPrice().multiply(stayLength) : null));
+        }
+        return new AvailabilityCalendar(from, to, nights, roomType, days);
+    }
+
+    /**
+     * Bit {@code d} is set when the room is free for {@code nights} nights from day {@code d} of the window.
+     */
+    static BitSet feasibleCheckIns(List<BookingIntervalView> intervals, long firstDay, int horizon, int checkInDays,
+                                   int nights) {
+        BitSet sold = new BitSet(horizon);
+        for (BookingIntervalView interval : intervals) {
+            int start = (int) Math.max(0, interval.getCheckInDate().toEpochDay() - firstDay);
+            int end = (int) Math.min(horizon, interval.getCheckOutDate().toEpochDay() - firstDay);
+            if (start < end) {
+                sold.set(start, end);
+            }
+        }
+
+        BitSet feasible = new BitSet(checkInDays);
+        int freeRun = 0;
+        for (int day = horizon - 1; day >= 0; day--) {
+            freeRun = sold.get(day) ? 0 : freeRun + 1;
+            if (day < checkInDays && freeRun >= nights) {
+                feasible.set(day);
+            }
+        }
+        return feasible;
+    }
+
+    private record RoomCheckIns(RoomSummaryView room, BitSet days) {
+    }
+}
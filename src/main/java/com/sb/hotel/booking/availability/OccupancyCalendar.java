@@ -0,0 +1,174 @@
+package com.sb.hotel.booking.availability;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Occupied nights of one room as a bitset over a fixed window of {@link #DAYS} days: bit {@code i} is set
+ * when the night starting {@code origin + i} (in epoch days) is sold.
+ * <p>
+ * The window starts on a 64-day boundary at or before the day it was made for, so it always reaches more
+ * than two years ahead. "Free on every night of [from, to)" is then an AND of at most a few words against
+ * a mask. Nights outside the window are not tracked; callers check {@link #covers(long, long)} and fall back
+ * to the bookings for stays that leave it.
+ * <p>
+ * Not thread-safe: share copies, not instances that are still being written.
+ */
+public final class OccupancyCalendar {
+
+    public static final int WORDS = 13;
+    public static final int DAYS = WORDS * Long.SIZE;
+    public static final int BYTES = WORDS * Long.BYTES;
+
+    private final long origin;
+    private final long[] words;
+
+    public OccupancyCalendar(long origin) {
+        this(origin, new long[WORDS]);
+    }
+
+    private OccupancyCalendar(long origin, long[] words) {
+        if (Math.floorMod(origin, Long.SIZE) != 0) {
+            throw new IllegalArgumentException("The window must start on a " + Long.SIZE + "-day boundary: " + origin);
+        }
+        this.origin = origin;
+        this.words = words;
+    }
+
+    /**
+     * The start of the window for a calendar made on the given day.
+     * @param day the day the calendar is made for
+     * @return the origin, in epoch days
+     */
+    public static long originFor(LocalDate day) {
+        return Math.floorDiv(day.toEpochDay(), Long.SIZE) * Long.SIZE;
+    }
+
+    /**
+     * Reads a calendar written by {@link #toBytes()}.
+     * @param origin the start of the window, in epoch days
+     * @param bytes the encoded nights
+     * @return the calendar
+     */
+    public static OccupancyCalendar fromBytes(long origin, byte[] bytes) {
+        if (bytes.length != BYTES) {
+            throw new IllegalArgumentException("Expected " + BYTES + " bytes but got " + bytes.length);
+        }
+        long[] words = new long[WORDS];
+        ByteBuffer.wrap(bytes).asLongBuffer().get(words);
+        return new OccupancyCalendar(origin, words);
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(BYTES);
+        buffer.asLongBuffer().put(words);
+        return buffer.array();
+    }
+
+    public OccupancyCalendar copy() {
+        return new OccupancyCalendar(origin, words.clone());
+    }
+
+    public long getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Checks whether every night of [from, to) falls inside the window.
+     */
+    public boolean covers(long from, long to) {
+        return from >= origin && to <= origin + DAYS;
+    }
+
+    /**
+     * Checks whether no night of [from, to) is sold.
+     * @param from the first night, in epoch days
+     * @param to the check-out day, in epoch days (exclusive)
+     * @return true if the room is free for the whole range
+     * @throws IllegalArgumentException if the range leaves the window
+     */
+    public boolean isFree(long from, long to) {
+        if (!covers(from, to)) {
+            throw new IllegalArgumentException("[" + from + ", " + to + ") is outside the window starting " + origin);
+        }
+        if (from >= to) {
+            return true;
+        }
+        int first = (int) (from - origin);
+        int last = (int) (to - origin);
+        int firstWord = first >>> 6;
+        int lastWord = (last - 1) >>> 6;
+        // Shift distances are taken mod 64: -1L << first keeps bits from first % 64 up,
+        // -1L >>> -last keeps bits below last % 64 (all of them when last is a multiple of 64)
+        long firstMask = -1L << first;
+        long lastMask = -1L >>> -last;
+        if (firstWord == lastWord) {
+            return (words[firstWord] & firstMask & lastMask) == 0;
+        }
+        if ((words[firstWord] & firstMask) != 0) {
+            return false;
+        }
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            if (words[i] != 0) {
+                return false;
+            }
+        }
+        return (words[lastWord] & lastMask) == 0;
+    }
+
+    /**
+     * Marks the nights of [from, to) as sold. Nights outside the window are ignored.
+     */
+    public void occupy(long from, long to) {
+        set(from, to, true);
+    }
+
+    /**
+     * Marks the nights of [from, to) as free. Nights outside the window are ignored.
+     */
+    public void release(long from, long to) {
+        set(from, to, false);
+    }
+
+    public void occupy(LocalDate checkInDate, LocalDate checkOutDate) {
+        occupy(checkInDate.toEpochDay(), checkOutDate.toEpochDay());
+    }
+
+    public void release(LocalDate checkInDate, LocalDate checkOutDate) {
+        release(checkInDate.toEpochDay(), checkOutDate.toEpochDay());
+    }
+
+    private void set(long from, long to, boolean sold) {
+        long start = Math.max(from, origin);
+        long end = Math.min(to, origin + DAYS);
+        if (start >= end) {
+            return;
+        }
+        int first = (int) (start - origin);
+        int last = (int) (end - origin);
+        int firstWord = first >>> 6;
+        int lastWord = (last - 1) >>> 6;
+        for (int i = firstWord; i <= lastWord; i++) {
+            long mask = -1L;
+            if (i == firstWord) {
+                mask &= -1L << first;
+            }
+            if (i == lastWord) {
+                mask &= -1L >>> -last;
+            }
+            words[i] = sold ? words[i] | mask : words[i] & ~mask;
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof OccupancyCalendar calendar && calendar.origin == origin
+                && Arrays.equals(calendar.words, words);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(origin) + Arrays.hashCode(words);
+    }
+}
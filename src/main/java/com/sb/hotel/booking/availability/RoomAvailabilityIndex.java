@@ -0,0 +1,261 @@
+package com.sb.hotel.booking.availability;
+
+import com.sb.hotel.booking.availability.RoomStays.Stay;
+import com.sb.hotel.booking.event.BookingChangedEvent;
+import com.sb.hotel.booking.repository.BookingRepository;
+import com.sb.hotel.booking.repository.RoomRepository;
+import com.sb.hotel.booking.repository.projection.BookingIntervalView;
+import com.sb.hotel.booking.repository.projection.RoomTypeView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory availability index: a sorted range set of booked stays per room, grouped by room type, plus an
+ * {@link OccupancyCalendar} per room that answers searches ending within its window with a few word-level ANDs.
+ * <p>
+ * The index is built once the application is ready and kept current from {@link BookingChangedEvent}s
+ * after each booking transaction commits. It only holds stays that end after the day it was built,
+ * so searches starting before that day (or made before the index is ready) return empty and the
+ * caller falls back to SQL.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoomAvailabilityIndex {
+
+    private final RoomRepository roomRepository;
+    private final BookingRepository bookingRepository;
+
+    @Value("${availability.index.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Serializes writers; readers never take it.
+     */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Changes received while a rebuild is loading from the database, replayed onto the new snapshot.
+     */
+    private List<Consumer<Snapshot>> pendingChanges;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        } else {
+            log.info("Room availability index is disabled, searches will use SQL");
+        }
+    }
+
+    /**
+     * Reloads the index from the database. Searches keep using the previous snapshot until this finishes.
+     */
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            writeLock.unlock();
+        }
+
+        try {
+            long started = System.nanoTime();
+            LocalDate floor = LocalDate.now();
+            Snapshot fresh = new Snapshot(floor);
+            for (RoomTypeView room : roomRepository.findAllRoomTypes()) {
+                fresh.addRoom(room.getId(), room.getRoomType());
+            }
+            List<BookingIntervalView> intervals = bookingRepository.findIntervalsEndingAfter(floor);
+            for (BookingIntervalView interval : intervals) {
+                fresh.put(interval.getBookingId(), interval.getRoomId(),
+                        interval.getCheckInDate(), interval.getCheckOutDate());
+            }
+
+            writeLock.lock();
+            try {
+                pendingChanges.forEach(change -> change.accept(fresh));
+                snapshot = fresh;
+            } finally {
+                pendingChanges = null;
+                writeLock.unlock();
+            }
+            log.info("Room availability index built with {} rooms and {} stays in {} ms",
+                    fresh.rooms.size(), intervals.size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Could not build the room availability index, searches will use SQL", e);
+            writeLock.lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * Finds the rooms whose type contains {@code roomType} and that have no stay overlapping
+     * [checkInDate, checkOutDate), matching the semantics of the SQL availability query.
+     * @param checkInDate the check-in date
+     * @param checkOutDate the check-out date
+     * @param roomType the room type to match
+     * @return the available room ids in ascending order, or empty if the index cannot answer this search
+     */
+    public Optional<List<Long>> findAvailableRoomIds(LocalDate checkInDate, LocalDate checkOutDate, String roomType) {
+        Snapshot current = snapshot;
+        if (current == null || checkInDate.isBefore(current.floor)) {
+            return Optional.empty();
+        }
+        long from = checkInDate.toEpochDay();
+        long to = checkOutDate.toEpochDay();
+        boolean inWindow = current.empty.covers(from, to);
+
+        List<Long> available = new ArrayList<>();
+        for (Map.Entry<String, Set<Long>> type : current.roomsByType.entrySet()) {
+            if (!type.getKey().contains(roomType)) {
+                continue;
+            }
+            for (Long roomId : type.getValue()) {
+                if (inWindow) {
+                    if (current.calendars.getOrDefault(roomId, current.empty).isFree(from, to)) {
+                        available.add(roomId);
+                    }
+                    continue;
+                }
+                RoomStays stays = current.rooms.get(roomId);
+                if (stays == null || stays.isFree(from, to)) {
+                    available.add(roomId);
+                }
+            }
+        }
+        available.sort(null);
+        return Optional.of(available);
+    }
+
+    /**
+     * Makes a newly created room searchable.
+     */
+    public void registerRoom(Long roomId, String roomType) {
+        change(current -> current.addRoom(roomId, roomType));
+    }
+
+    /**
+     * Tells whether a room of exactly this type exists, as of the last snapshot.
+     * @param roomType the room type
+     * @return {@code true} if the index is ready and holds a room of this type
+     */
+    public boolean isKnownRoomType(String roomType) {
+        Snapshot current = snapshot;
+        return current != null && roomType != null && current.roomsByType.containsKey(roomType);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        change(current -> current.apply(event));
+    }
+
+    private void change(Consumer<Snapshot> change) {
+        writeLock.lock();
+        try {
+            Snapshot current = snapshot;
+            if (current != null) {
+                change.accept(current);
+            }
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static final class Snapshot {
+
+        private record StayRef(Long roomId, Stay stay) {
+        }
+
+        private final LocalDate floor;
+        /**
+         * A calendar with no sold nights, for rooms without one. Never written.
+         */
+        private final OccupancyCalendar empty;
+        private final Map<Long, RoomStays> rooms = new ConcurrentHashMap<>();
+        /**
+         * Replaced, never modified in place, so readers always see a complete calendar.
+         */
+        private final Map<Long, OccupancyCalendar> calendars = new ConcurrentHashMap<>();
+        private final Map<String, Set<Long>> roomsByType = new ConcurrentHashMap<>();
+        private final Map<Long, StayRef> staysByBooking = new ConcurrentHashMap<>();
+
+        private Snapshot(LocalDate floor) {
+            this.floor = floor;
+            this.empty = new OccupancyCalendar(OccupancyCalendar.originFor(floor));
+        }
+
+        private void addRoom(Long roomId, String roomType) {
+            rooms.computeIfAbsent(roomId, id -> new RoomStays());
+            if (roomType != null) {
+                roomsByType.computeIfAbsent(roomType, type -> ConcurrentHashMap.newKeySet()).add(roomId);
+            }
+        }
+
+        private void apply(BookingChangedEvent event) {
+            if (event.getType() == BookingChangedEvent.Type.CANCELLED) {
+                remove(event.getBookingId());
+            } else {
+                put(event.getBookingId(), event.getRoomId(), event.getCheckInDate(), event.getCheckOutDate());
+            }
+        }
+
+        private void put(Long bookingId, Long roomId, LocalDate checkInDate, LocalDate checkOutDate) {
+            remove(bookingId);
+            if (roomId == null || checkInDate == null || checkOutDate == null || !checkOutDate.isAfter(floor)) {
+                return;
+            }
+            Stay stay = new Stay(checkInDate.toEpochDay(), checkOutDate.toEpochDay(), bookingId);
+            rooms.computeIfAbsent(roomId, id -> new RoomStays()).add(stay);
+            staysByBooking.put(bookingId, new StayRef(roomId, stay));
+            calendars.compute(roomId, (id, calendar) -> {
+                OccupancyCalendar next = (calendar == null ? empty : calendar).copy();
+                next.occupy(stay.start(), stay.end());
+                return next;
+            });
+        }
+
+        private void remove(Long bookingId) {
+            StayRef ref = staysByBooking.remove(bookingId);
+            if (ref != null) {
+                RoomStays stays = rooms.get(ref.roomId());
+                stays.remove(ref.stay());
+                calendars.computeIfPresent(ref.roomId(), (id, calendar) -> {
+                    OccupancyCalendar next = calendar.copy();
+                    next.release(ref.stay().start(), ref.stay().end());
+                    // Overlapping stays should not exist, but must keep their nights if they do
+                    stays.forEachOverlapping(ref.stay().start(), ref.stay().end(), other -> next.occupy(other.start(), other.end()));
+                    return next;
+                });
+            }
+        }
+    }
+}
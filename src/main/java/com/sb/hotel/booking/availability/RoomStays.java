@@ -0,0 +1,71 @@
+package com.sb.hotel.booking.availability;
+
+import java.util.Comparator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+
+/**
+ * Booked stays of one room, kept as a sorted range set of half-open [checkIn, checkOut) epoch-day intervals.
+ * Reads are lock-free; writes are serialized by {@link RoomAvailabilityIndex}.
+ */
+final class RoomStays {
+
+    record Stay(long start, long end, long bookingId) {
+    }
+
+    private static final Comparator<Stay> ORDER = Comparator.comparingLong(Stay::start)
+            .thenComparingLong(Stay::bookingId);
+
+    private final ConcurrentSkipListSet<Stay> stays = new ConcurrentSkipListSet<>(ORDER);
+
+    /**
+     * Length of the longest stay ever added. It never shrinks, which only widens the scan window.
+     */
+    private volatile long longestStay;
+
+    void add(Stay stay) {
+        stays.add(stay);
+        long length = stay.end() - stay.start();
+        if (length > longestStay) {
+            longestStay = length;
+        }
+    }
+
+    void remove(Stay stay) {
+        stays.remove(stay);
+    }
+
+    /**
+     * A stay can only overlap [from, to) if it starts in [from - longestStay, to), so only that slice is scanned.
+     * An empty or reversed range overlaps nothing.
+     */
+    boolean isFree(long from, long to) {
+        for (Stay stay : candidates(from, to)) {
+            if (stay.end() > from) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Passes every stay overlapping [from, to) to the action.
+     */
+    void forEachOverlapping(long from, long to, Consumer<Stay> action) {
+        for (Stay stay : candidates(from, to)) {
+            if (stay.end() > from) {
+                action.accept(stay);
+            }
+        }
+    }
+
+    private Set<Stay> candidates(long from, long to) {
+        if (to <= from) {
+            return Set.of();
+        }
+        Stay lower = new Stay(from - longestStay, Long.MIN_VALUE, Long.MIN_VALUE);
+        Stay upper = new Stay(to, Long.MIN_VALUE, Long.MIN_VALUE);
+        return stays.subSet(lower, true, upper, false);
+    }
+}
@@ -0,0 +1,27 @@
+package com.sb.hotel.booking.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts {@link CacheInvalidationMessage}s to every node of the application, including the sender.
+ * <p>
+ * Delivery is at most once and asynchronous; a node that misses a message serves stale entries until
+ * they expire. Implementations: {@link InProcessCacheInvalidationBus} (one JVM, single node and tests) and
+ * {@link RedisCacheInvalidationBus} (Redis pub/sub). Another transport, e.g. JGroups, only needs to
+ * implement this interface and be selected through {@code cache.invalidation.transport}.
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * Sends a message to all subscribers on all nodes. Must not block on remote nodes.
+     * @param message the message to send
+     */
+    void publish(CacheInvalidationMessage message);
+
+    /**
+     * Registers a listener for messages from all nodes. Listeners are called on a transport thread,
+     * one message at a time and in the order each node sent them.
+     * @param listener the listener
+     */
+    void subscribe(Consumer<CacheInvalidationMessage> listener);
+}
@@ -0,0 +1,47 @@
+package com.sb.hotel.booking.cluster;
+
+import com.sb.hotel.booking.event.BookingChangedEvent;
+
+import java.time.LocalDate;
+
+/**
+ * A change committed on one node that other nodes must apply to their caches and availability index.
+ * Serialized as JSON by transports that leave the JVM.
+ *
+ * @param origin the ID of the node that made the change, so it can ignore its own messages
+ * @param kind what changed
+ * @param roomId the room that was added or whose booking changed
+ * @param roomType the type of an added room
+ * @param bookingChange the kind of booking change
+ * @param bookingId the booking that changed
+ * @param checkInDate the check-in date of the booking
+ * @param checkOutDate the check-out date of the booking
+ * @param guestEmail the guest email of the booking
+ * @param previousGuestEmail the guest email before an update that changed it
+ */
+public record CacheInvalidationMessage(String origin, Kind kind, Long roomId, String roomType,
+                                       BookingChangedEvent.Type bookingChange, Long bookingId,
+                                       LocalDate checkInDate, LocalDate checkOutDate,
+                                       String guestEmail, String previousGuestEmail) {
+
+    public enum Kind { BOOKING_CHANGED, ROOM_ADDED }
+
+    public static CacheInvalidationMessage bookingChanged(String origin, BookingChangedEvent event) {
+        return new CacheInvalidationMessage(origin, Kind.BOOKING_CHANGED, event.getRoomId(), null, event.getType(),
+                event.getBookingId(), event.getCheckInDate(), event.getCheckOutDate(), event.getGuestEmail(),
+                event.getPreviousGuestEmail());
+    }
+
+    public static CacheInvalidationMessage roomAdded(String origin, Long roomId, String roomType) {
+        return new CacheInvalidationMessage(origin, Kind.ROOM_ADDED, roomId, roomType, null, null, null, null, null, null);
+    }
+
+    /**
+     * Recreates the booking event this message was sent for.
+     * @return the booking event
+     */
+    public BookingChangedEvent toBookingChangedEvent() {
+        return new BookingChangedEvent(bookingChange, bookingId, roomId, checkInDate, checkOutDate, guestEmail,
+                previousGuestEmail);
+    }
+}
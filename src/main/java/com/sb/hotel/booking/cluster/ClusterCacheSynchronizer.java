@@ -0,0 +1,110 @@
+package com.sb.hotel.booking.cluster;
+
+import com.sb.hotel.booking.availability.RoomAvailabilityIndex;
+import com.sb.hotel.booking.event.BookingChangedEvent;
+import com.sb.hotel.booking.event.RoomAddedEvent;
+import com.sb.hotel.booking.models.BookedRoom;
+import com.sb.hotel.booking.models.Room;
+import com.sb.hotel.booking.models.RoomDayInventory;
+import com.sb.hotel.booking.service.Impl.AvailabilitySearchCoalescer;
+import com.sb.hotel.booking.service.Impl.GuestBookingCache;
+import com.sb.hotel.booking.service.Impl.RoomCacheInvalidator;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the caches of all nodes coherent: every committed room or booking change is published on the
+ * {@link CacheInvalidationBus}, and changes published by other nodes are applied here to the Hibernate
+ * second-level and query caches, the Spring room and guest booking caches, the availability index and the
+ * availability search coalescer.
+ * <p>
+ * Query results are invalidated the way Hibernate does it for local writes, by moving the update timestamp
+ * of the affected tables forward; a search that was already running when the message arrived therefore
+ * cannot cache its stale result afterwards. A node sees another node's change once the message has been
+ * delivered, typically within milliseconds; if a message is lost the entries expire after their TTL.
+ */
+@Slf4j
+@Component
+public class ClusterCacheSynchronizer {
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final CacheInvalidationBus bus;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final RoomCacheInvalidator roomCacheInvalidator;
+    private final GuestBookingCache guestBookingCache;
+    private final AvailabilitySearchCoalescer searchCoalescer;
+    private final SessionFactoryImplementor sessionFactory;
+
+    public ClusterCacheSynchronizer(CacheInvalidationBus bus, RoomAvailabilityIndex availabilityIndex,
+                                    RoomCacheInvalidator roomCacheInvalidator, GuestBookingCache guestBookingCache,
+                                    AvailabilitySearchCoalescer searchCoalescer, EntityManagerFactory entityManagerFactory) {
+        this.bus = bus;
+        this.availabilityIndex = availabilityIndex;
+        this.roomCacheInvalidator = roomCacheInvalidator;
+        this.guestBookingCache = guestBookingCache;
+        this.searchCoalescer = searchCoalescer;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        bus.subscribe(this::onMessage);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        bus.publish(CacheInvalidationMessage.bookingChanged(nodeId, event));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoomAdded(RoomAddedEvent event) {
+        bus.publish(CacheInvalidationMessage.roomAdded(nodeId, event.getRoomId(), event.getRoomType()));
+    }
+
+    private void onMessage(CacheInvalidationMessage message) {
+        if (nodeId.equals(message.origin())) {
+            return;
+        }
+        log.debug("Applying change from node {}: {}", message.origin(), message);
+        switch (message.kind()) {
+            case BOOKING_CHANGED -> {
+                evictEntity(Room.class, message.roomId());
+                evictEntity(BookedRoom.class, message.bookingId());
+                invalidateQueries(Room.class, BookedRoom.class, RoomDayInventory.class);
+                BookingChangedEvent event = message.toBookingChangedEvent();
+                availabilityIndex.onBookingChanged(event);
+                guestBookingCache.onBookingChanged(event);
+            }
+            case ROOM_ADDED -> {
+                invalidateQueries(Room.class);
+                availabilityIndex.registerRoom(message.roomId(), message.roomType());
+            }
+        }
+        searchCoalescer.invalidate();
+        roomCacheInvalidator.evictRoom(message.roomId());
+    }
+
+    private void evictEntity(Class<?> entityClass, Long id) {
+        if (id != null) {
+            sessionFactory.getCache().evictEntityData(entityClass, id);
+        }
+    }
+
+    private void invalidateQueries(Class<?>... entityClasses) {
+        String[] tables = Stream.of(entityClasses)
+                .flatMap(entityClass -> Arrays.stream(sessionFactory.getMappingMetamodel()
+                        .getEntityDescriptor(entityClass).getQuerySpaces()))
+                .map(String.class::cast)
+                .toArray(String[]::new);
+        try (Session session = sessionFactory.openSession()) {
+            sessionFactory.getCache().getTimestampsCache()
+                    .invalidate(tables, session.unwrap(SharedSessionContractImplementor.class));
+        }
+    }
+}
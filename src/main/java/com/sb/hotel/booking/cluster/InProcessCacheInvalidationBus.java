@@ -0,0 +1,71 @@
+package com.sb.hotel.booking.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Bus between application contexts of the same JVM that use the same channel name. For a single node this
+ * only echoes messages back to the sender; tests start several contexts on one channel to act as a cluster.
+ * <p>
+ * Each bus delivers on its own thread, so a slow node never holds up the publisher or the other nodes.
+ */
+@Slf4j
+public class InProcessCacheInvalidationBus implements CacheInvalidationBus, DisposableBean {
+
+    private static final Map<String, List<InProcessCacheInvalidationBus>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final String channel;
+    private final List<Consumer<CacheInvalidationMessage>> listeners = new CopyOnWriteArrayList<>();
+    private final ExecutorService delivery;
+
+    public InProcessCacheInvalidationBus(String channel) {
+        this.channel = channel;
+        this.delivery = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "cache-invalidation-" + channel);
+            thread.setDaemon(true);
+            return thread;
+        });
+        CHANNELS.computeIfAbsent(channel, name -> new CopyOnWriteArrayList<>()).add(this);
+    }
+
+    @Override
+    public void publish(CacheInvalidationMessage message) {
+        for (InProcessCacheInvalidationBus member : CHANNELS.getOrDefault(channel, List.of())) {
+            member.deliver(message);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidationMessage> listener) {
+        listeners.add(listener);
+    }
+
+    private void deliver(CacheInvalidationMessage message) {
+        delivery.execute(() -> {
+            for (Consumer<CacheInvalidationMessage> listener : listeners) {
+                try {
+                    listener.accept(message);
+                } catch (RuntimeException e) {
+                    log.error("Cache invalidation listener failed for {}", message, e);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        CHANNELS.computeIfPresent(channel, (name, members) -> {
+            members.remove(this);
+            return members.isEmpty() ? null : members;
+        });
+        delivery.shutdown();
+    }
+}
@@ -0,0 +1,83 @@
+package com.sb.hotel.booking.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Bus over Redis pub/sub: messages are published as JSON on one channel that every node subscribes to.
+ * Redis does not keep messages, so a node that is disconnected when a change is published misses it.
+ * <p>
+ * Messages are handled on a single thread so that each node's changes are applied in the order it sent them.
+ */
+@Slf4j
+public class RedisCacheInvalidationBus implements CacheInvalidationBus, InitializingBean, DisposableBean {
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ChannelTopic topic;
+    private final RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    private final ThreadPoolTaskExecutor delivery = new ThreadPoolTaskExecutor();
+
+    public RedisCacheInvalidationBus(RedisConnectionFactory connectionFactory, ObjectMapper objectMapper, String channel) {
+        this.redisTemplate = new StringRedisTemplate(connectionFactory);
+        this.objectMapper = objectMapper;
+        this.topic = new ChannelTopic(channel);
+        delivery.setCorePoolSize(1);
+        delivery.setMaxPoolSize(1);
+        delivery.setThreadNamePrefix("cache-invalidation-redis-");
+        container.setConnectionFactory(connectionFactory);
+        container.setTaskExecutor(delivery);
+    }
+
+    @Override
+    public void publish(CacheInvalidationMessage message) {
+        redisTemplate.convertAndSend(topic.getTopic(), serialize(message));
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidationMessage> listener) {
+        container.addMessageListener((message, pattern) -> {
+            try {
+                listener.accept(deserialize(message.getBody()));
+            } catch (IOException e) {
+                log.warn("Ignoring malformed cache invalidation message on {}", topic.getTopic(), e);
+            }
+        }, topic);
+    }
+
+    String serialize(CacheInvalidationMessage message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize " + message, e);
+        }
+    }
+
+    CacheInvalidationMessage deserialize(byte[] body) throws IOException {
+        return objectMapper.readValue(body, CacheInvalidationMessage.class);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        delivery.initialize();
+        container.afterPropertiesSet();
+        container.start();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        container.destroy();
+        delivery.shutdown();
+    }
+}
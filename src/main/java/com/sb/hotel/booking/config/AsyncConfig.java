@@ -0,0 +1,59 @@
+package com.sb.hotel.booking.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableAsync
+@Slf4j
+public class AsyncConfig {
+
+    /**
+     * Executor for plain {@code @Async} methods and async MVC responses (e.g. the bookings export).
+     * Spring Boot only creates it when no other Executor bean exists, so it is declared here next to
+     * the photo pool. Sized by {@code spring.task.execution.pool.*}.
+     */
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * With virtual threads every task gets its own virtual thread; {@code spring.task.execution.simple.concurrency-limit}
+     * can cap how many run at once.
+     */
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor applicationTaskExecutorVirtualThreads(SimpleAsyncTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Bounded pool for image resizing. When the queue is full new jobs are dropped rather than run on
+     * the request thread; rooms without variants fall back to the original photo. Resizing is CPU-bound,
+     * so this stays a small platform-thread pool in virtual-thread mode too.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor photoVariantExecutor(@Value("${photo.variants.pool-size:2}") int poolSize,
+                                                       @Value("${photo.variants.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("photo-variant-");
+        executor.setRejectedExecutionHandler((task, pool) ->
+                log.warn("Photo variant queue is full ({} tasks), skipping variant generation", pool.getQueue().size()));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
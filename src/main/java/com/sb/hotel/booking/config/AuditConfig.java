@@ -0,0 +1,29 @@
+package com.sb.hotel.booking.config;
+
+import com.sb.hotel.booking.audit.EventSink;
+import com.sb.hotel.booking.audit.SegmentFileEventSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Audit log of booking changes: the outbox relay runs on Spring's scheduler and appends to the segment
+ * files in {@code audit.log.dir}, unless another {@link EventSink} bean is declared.
+ */
+@Configuration
+@EnableScheduling
+public class AuditConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(EventSink.class)
+    public SegmentFileEventSink segmentFileEventSink(@Value("${audit.log.dir:audit}") Path directory,
+                                                     @Value("${audit.log.segment-size:64MB}") DataSize segmentSize) throws IOException {
+        return new SegmentFileEventSink(directory, Math.toIntExact(segmentSize.toBytes()));
+    }
+}
@@ -0,0 +1,91 @@
+package com.sb.hotel.booking.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Caffeine caches for single rooms, pages of the room listing, guest booking histories and recent idempotency
+ * keys. The room caches hold {@code RoomResponse}s rather than entities (a cached {@code Room} would outlive its
+ * session, and reading its lazy bookings would then fail). All record statistics, which Spring Boot publishes as
+ * {@code cache.gets}/{@code cache.evictions} metrics per cache. Hibernate's second-level cache is also held in
+ * Caffeine, through its JCache provider, with the regions configured in {@code application.conf}.
+ * <p>
+ * Rooms, room pages and booking histories are evicted after every change that commits (see
+ * {@code RoomCacheInvalidator} and {@code GuestBookingCache}); their TTL only bounds how long a change made
+ * outside this application (e.g. directly in the database) can go unseen.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String ROOMS = "rooms";
+    public static final String ROOM_PAGES = "roomPages";
+    public static final String GUEST_BOOKINGS = "guestBookings";
+    public static final String IDEMPOTENCY_KEYS = "idempotencyKeys";
+
+    private static final int MAX_ROOMS = 10_000;
+    private static final int MAX_ROOM_PAGES = 1_000;
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> roomCaches(
+            @Value("${cache.rooms.ttl:1m}") Duration roomsTtl,
+            @Value("${cache.guest-bookings.max-size:10000}") long guestBookingsMaxSize,
+            @Value("${cache.guest-bookings.ttl:10m}") Duration guestBookingsTtl,
+            @Value("${cache.idempotency-keys.max-size:100000}") long idempotencyKeysMaxSize,
+            @Value("${cache.idempotency-keys.ttl:10m}") Duration idempotencyKeysTtl) {
+        return cacheManager -> {
+            cacheManager.registerCustomCache(ROOMS, Caffeine.newBuilder()
+                    .maximumSize(MAX_ROOMS)
+                    .expireAfterWrite(roomsTtl)
+                    .recordStats()
+                    .build());
+            cacheManager.registerCustomCache(ROOM_PAGES, Caffeine.newBuilder()
+                    .maximumSize(MAX_ROOM_PAGES)
+                    .expireAfterWrite(roomsTtl)
+                    .recordStats()
+                    .build());
+            // One entry per guest, holding that guest's cached pages
+            cacheManager.registerCustomCache(GUEST_BOOKINGS, Caffeine.newBuilder()
+                    .maximumSize(guestBookingsMaxSize)
+                    .expireAfterWrite(guestBookingsTtl)
+                    .recordStats()
+                    .build());
+            // Booking requests by Idempotency-Key, running or done; older keys are answered from the database
+            cacheManager.registerCustomCache(IDEMPOTENCY_KEYS, Caffeine.newBuilder()
+                    .maximumSize(idempotencyKeysMaxSize)
+                    .expireAfterWrite(idempotencyKeysTtl)
+                    .recordStats()
+                    .build());
+        };
+    }
+
+    /**
+     * Gives this application's Hibernate second-level cache its own JCache CacheManager. Hibernate would
+     * otherwise use the provider's default manager, which is shared by every application context in the JVM
+     * even when they point at different databases. The URI only names the manager; Caffeine still reads the
+     * region settings from {@code application.conf}.
+     */
+    @Bean(destroyMethod = "close")
+    public javax.cache.CacheManager hibernateCacheManager() {
+        return Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate:" + UUID.randomUUID()), getClass().getClassLoader());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(javax.cache.CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
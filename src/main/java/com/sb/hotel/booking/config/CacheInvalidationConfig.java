@@ -0,0 +1,35 @@
+package com.sb.hotel.booking.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sb.hotel.booking.cluster.CacheInvalidationBus;
+import com.sb.hotel.booking.cluster.InProcessCacheInvalidationBus;
+import com.sb.hotel.booking.cluster.RedisCacheInvalidationBus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+/**
+ * Selects the transport that carries cache invalidations between nodes ({@code cache.invalidation.transport}):
+ * {@code in-process} (default) for a single node or several application contexts in one JVM, {@code redis}
+ * for a multi-node deployment, using the connection configured by {@code spring.data.redis.*}. All nodes of
+ * a deployment must use the same transport and {@code cache.invalidation.channel}.
+ */
+@Configuration
+public class CacheInvalidationConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "cache.invalidation.transport", havingValue = "in-process", matchIfMissing = true)
+    public CacheInvalidationBus inProcessCacheInvalidationBus(
+            @Value("${cache.invalidation.channel:hotel-cache-invalidation}") String channel) {
+        return new InProcessCacheInvalidationBus(channel);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "cache.invalidation.transport", havingValue = "redis")
+    public CacheInvalidationBus redisCacheInvalidationBus(RedisConnectionFactory connectionFactory, ObjectMapper objectMapper,
+                                                          @Value("${cache.invalidation.channel:hotel-cache-invalidation}") String channel) {
+        return new RedisCacheInvalidationBus(connectionFactory, objectMapper, channel);
+    }
+}
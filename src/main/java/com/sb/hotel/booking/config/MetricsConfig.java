@@ -0,0 +1,24 @@
+package com.sb.hotel.booking.config;
+
+import com.sb.hotel.booking.metrics.SqlStatementCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hooks the application into Micrometer where Spring Boot does not on its own. Service methods are timed by
+ * {@code @Observed} (see {@code management.observations.annotations.enabled}), and HTTP, Hikari and cache
+ * meters come from Spring Boot; see {@code HotelMetrics} for the rest.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Lets {@code SqlStatementMetricsFilter} count the statements each request prepares.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounter() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+    }
+}
@@ -0,0 +1,47 @@
+package com.sb.hotel.booking.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * R2DBC access for the reactive search; JPA/JDBC stays in charge of writes, transactions and schema setup.
+ * <p>
+ * The connection pool is deliberately not a bean: Spring Boot backs off its DataSource (and with it JPA)
+ * and runs schema scripts over R2DBC as soon as a ConnectionFactory bean exists. For the same reason the
+ * R2DBC auto-configurations are excluded on the application class.
+ */
+@Configuration
+@EnableConfigurationProperties(R2dbcProperties.class)
+public class R2dbcConfig implements DisposableBean {
+
+    private ConnectionPool connectionPool;
+
+    @Bean
+    public DatabaseClient databaseClient(R2dbcProperties properties) {
+        ConnectionPoolConfiguration configuration = ConnectionPoolConfiguration.builder(
+                        ConnectionFactoryBuilder.withUrl(properties.getUrl())
+                                .username(properties.getUsername())
+                                .password(properties.getPassword())
+                                .build())
+                .initialSize(properties.getPool().getInitialSize())
+                .maxSize(properties.getPool().getMaxSize())
+                .maxIdleTime(properties.getPool().getMaxIdleTime())
+                .build();
+        connectionPool = new ConnectionPool(configuration);
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.sb.hotel.booking.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sb.hotel.booking.controller.RoomSearchHandler;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Reactor Netty server for the reactive {@code /api/v2} routes, next to the servlet container that serves
+ * everything else. A few event-loop threads serve every v2 connection, so slow clients reading a long
+ * stream do not hold request threads. Requests are observed like the servlet ones, as {@code http.server.requests}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "reactive-api.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveApiServer implements SmartLifecycle {
+
+    private final RoomSearchHandler roomSearchHandler;
+    private final ObjectMapper objectMapper;
+    private final ObservationRegistry observationRegistry;
+    private final int port;
+
+    private volatile DisposableServer server;
+
+    public ReactiveApiServer(RoomSearchHandler roomSearchHandler, ObjectMapper objectMapper,
+                             ObservationRegistry observationRegistry, @Value("${reactive-api.port:8081}") int port) {
+        this.roomSearchHandler = roomSearchHandler;
+        this.objectMapper = objectMapper;
+        this.observationRegistry = observationRegistry;
+        this.port = port;
+    }
+
+    @Override
+    public void start() {
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper)))
+                .build();
+        // As RouterFunctions.toHttpHandler, plus the observation registry
+        HttpHandler handler = WebHttpHandlerBuilder.webHandler(RouterFunctions.toWebHandler(roomSearchHandler.routes(), strategies))
+                .filters(filters -> filters.addAll(strategies.webFilters()))
+                .exceptionHandlers(handlers -> handlers.addAll(strategies.exceptionHandlers()))
+                .localeContextResolver(strategies.localeContextResolver())
+                .observationRegistry(observationRegistry)
+                .build();
+        server = HttpServer.create().port(port).handle(new ReactorHttpHandlerAdapter(handler)).bindNow();
+        log.info("Reactive API listening on port {}", server.port());
+    }
+
+    @Override
+    public void stop() {
+        DisposableServer running = server;
+        server = null;
+        if (running != null) {
+            running.disposeNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * The bound port; differs from {@code reactive-api.port} when that is 0.
+     */
+    public int getPort() {
+        return server.port();
+    }
+}
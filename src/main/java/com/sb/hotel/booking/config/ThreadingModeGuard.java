@@ -0,0 +1,32 @@
+package com.sb.hotel.booking.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports which threading model serves requests. {@code spring.threads.virtual.enabled=true} only takes
+ * effect on Java 21 or later; on older runtimes Spring Boot silently keeps platform threads, so this
+ * makes that fallback visible.
+ */
+@Slf4j
+@Component
+public class ThreadingModeGuard {
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        Environment environment = event.getApplicationContext().getEnvironment();
+        boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("Serving requests on virtual threads (Java {})", Runtime.version().feature());
+        } else if (requested) {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads (Java 21+ needed); "
+                    + "serving requests on platform threads", Runtime.version().feature());
+        } else {
+            log.info("Serving requests on platform threads");
+        }
+    }
+}
@@ -1,14 +1,29 @@
 package com.sb.hotel.booking.controller;
 
+import com.sb.hotel.booking.Response.CursorPage;
+import com.sb.hotel.booking.exception.RoomNotAvailableException;
 import com.sb.hotel.booking.models.BookedRoom;
+import com.sb.hotel.booking.request.BatchBookingItem;
+import com.sb.hotel.booking.request.BookingRequest;
+import com.sb.hotel.booking.response.BookingResponse;
 import com.sb.hotel.booking.service.BookingService;
+import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Controller for handling booking-related operations.
@@ -19,30 +34,133 @@ import org.springframework.web.bind.annotation.*;
 @Validated
 public class BookingController {
 
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final BookingService bookingService;
 
     /**
      * Books a room based on the provided room ID and booking details.
      * @param roomId the ID of the room to book
      * @param bookingRequest the booking details
+     * @param idempotencyKey optional key identifying this request; a retry with the same key and details
+     *                       returns the original confirmation code instead of booking again
      * @return ResponseEntity with the booking confirmation code or error message
      */
     @PostMapping("/room/booking")
-    public ResponseEntity<?> saveBooking(@RequestParam Long roomId, @Valid @RequestBody BookedRoom bookingRequest) {
+    public ResponseEntity<?> saveBooking(@RequestParam Long roomId, @Valid @RequestBody BookingRequest bookingRequest,
+                                         @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
         try {
-            String confirmationCode = bookingService.saveBooking(roomId, bookingRequest);
+            String confirmationCode = bookingService.saveBooking(roomId, bookingRequest.toBookedRoom(), idempotencyKey);
             //return ResponseEntity.ok(new BookingResponseMessage("Room booked successfully", confirmationCode));
             return new ResponseEntity<>(confirmationCode,HttpStatus.CREATED);
+        } catch (RoomNotAvailableException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(e.getMessage()));
         } catch (RuntimeException e) {
             // Handle specific exceptions if needed
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrorResponse(e.getMessage()));
         }
     }
 
+    /**
+     * Books several room-stays at once. Either every stay is booked or, if any room is missing or taken
+     * for its dates, none is.
+     * @param items the stays to book (at most 500)
+     * @return ResponseEntity with the confirmation codes in request order, or an error message
+     */
+    @PostMapping("/room/booking/batch")
+    public ResponseEntity<?> saveBookings(@RequestBody List<@Valid BatchBookingItem> items) {
+        if (items.isEmpty() || items.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("A batch must contain between 1 and " + MAX_BATCH_SIZE + " bookings."));
+        }
+        try {
+            return new ResponseEntity<>(bookingService.saveBookings(items), HttpStatus.CREATED);
+        } catch (RoomNotAvailableException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<?> handleConstraintViolation(ConstraintViolationException e) {
+        return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+    }
+
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<?> handleInvalidRequest(MethodArgumentNotValidException e) {
+        String message = e.getBindingResult().getFieldErrors().stream()
+                .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                .collect(Collectors.joining(", "));
+        return ResponseEntity.badRequest().body(new ErrorResponse(message));
+    }
+
+    /**
+     * Lists bookings checking in within a date range, with keyset pagination.
+     * @param startDate the first check-in date to include
+     * @param endDate the last check-in date to include
+     * @param after the cursor returned with the previous page; omit for the first page
+     * @param size the page size (at most 100)
+     * @return ResponseEntity with one page of bookings and the cursor of the next page
+     */
+    @GetMapping
+    public ResponseEntity<CursorPage<BookingResponse>> getBookingsByCheckInDate(
+            @RequestParam("startDate") @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate startDate,
+            @RequestParam("endDate") @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate endDate,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(bookingService.getBookingsByCheckInDate(startDate, endDate, after, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Lists a guest's bookings ("my bookings"), with keyset pagination. The email is matched case-insensitively.
+     * @param email the guest's email
+     * @param after the cursor returned with the previous page; omit for the first page
+     * @param size the page size (at most 100)
+     * @return ResponseEntity with one page of bookings and the cursor of the next page
+     */
+    @GetMapping("/guest")
+    public ResponseEntity<CursorPage<BookingResponse>> getBookingsByGuest(
+            @RequestParam("email") String email,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(bookingService.getBookingsByGuestEmail(email, after, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Streams every booking as newline-delimited JSON. The response is written while rows are read
+     * from the database, so it starts immediately and never holds the whole table in memory.
+     * @return ResponseEntity streaming the bookings
+     */
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportBookings() {
+        StreamingResponseBody body = bookingService::exportBookings;
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bookings.ndjson\"")
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
 
     @PutMapping("/update/{bookingId}")
     public ResponseEntity<String> updateBooking(@PathVariable Long bookingId, @RequestBody BookedRoom updatedBooking) {
-        boolean isUpdated = bookingService.updateBooking(bookingId, updatedBooking);
+        boolean isUpdated;
+        try {
+            isUpdated = bookingService.updateBooking(bookingId, updatedBooking);
+        } catch (RoomNotAvailableException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
         if (isUpdated) {
             return ResponseEntity.ok("Booking updated successfully.");
         } else {
@@ -127,4 +245,7 @@ Response :
     "message": "Room booked successfully",
     "confirmationCode": "4948918860"
     }
+
+GET : http://localhost:8080/bookings/guest?email=John.Doe@example.com&size=20
+Next page : http://localhost:8080/bookings/guest?email=john.doe@example.com&size=20&after=<nextCursor from the previous response>
  */
\ No newline at end of file
@@ -1,32 +1,44 @@
 package com.sb.hotel.booking.controller;
 
+import com.sb.hotel.booking.Response.AvailabilityCalendar;
+import com.sb.hotel.booking.Response.CursorPage;
 import com.sb.hotel.booking.Response.RoomResponse;
-import com.sb.hotel.booking.models.BookedRoom;
+import com.sb.hotel.booking.metrics.HotelMetrics;
 import com.sb.hotel.booking.models.Room;
-import com.sb.hotel.booking.service.BookingService;
+import com.sb.hotel.booking.service.PhotoStorageService;
+import com.sb.hotel.booking.service.PhotoVariant;
 import com.sb.hotel.booking.service.RoomService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Base64;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api")
 public class RoomController {
 
+    private static final Duration PHOTO_MAX_AGE = Duration.ofDays(1);
+    private static final String ORIGINAL = "original";
+
     private final RoomService roomService;
-    private final BookingService bookingService;
+    private final PhotoStorageService photoStorageService;
+    private final HotelMetrics metrics;
 
     /**
      * Adds a new room to the system.
@@ -42,9 +54,8 @@ public class RoomController {
                                                    @RequestParam("roomPrice") BigDecimal roomPrice) {
         try {
             Room savedRoom = roomService.addNewRoom(photo,hotelName, roomType, roomPrice);
-            String photoBase64 = savedRoom.getPhoto() != null ? Base64.getEncoder().encodeToString(savedRoom.getPhoto()) : null;
-            RoomResponse response = new RoomResponse(savedRoom.getId(),
-                    savedRoom.getRoomType(), savedRoom.getRoomPrice(), savedRoom.isBooked(), photoBase64, new ArrayList<>());
+            RoomResponse response = new RoomResponse(savedRoom.getId(), savedRoom.getRoomType(), savedRoom.getRoomPrice(),
+                    savedRoom.isBooked(), RoomResponse.thumbnailUrl(savedRoom.getId(), savedRoom.getPhotoKey()), new ArrayList<>());
             return ResponseEntity.ok(response);
         } catch (IOException e) {
             // Handle exceptions appropriately
@@ -53,27 +64,33 @@ public class RoomController {
     }
 
     /**
-     * Retrieves all rooms with pagination.
-     * @param pageable pagination information
-     * @return ResponseEntity with paginated list of rooms
+     * Retrieves rooms with keyset pagination.
+     * @param after the cursor returned with the previous page; omit for the first page
+     * @param size the page size (at most 100)
+     * @return ResponseEntity with one page of rooms and the cursor of the next page
      */
     @GetMapping("/rooms")
-    public ResponseEntity<Page<RoomResponse>> getAllRooms(Pageable pageable) {
+    public ResponseEntity<CursorPage<RoomResponse>> getAllRooms(@RequestParam(value = "after", required = false) String after,
+                                                                @RequestParam(value = "size", defaultValue = "20") int size) {
         try {
-            Page<Room> rooms = roomService.getAllRooms(pageable);
-            Page<RoomResponse> roomResponses = rooms.map(room -> {
-                byte[] photoBytes = room.getPhoto();
-                String photoBase64 = photoBytes != null ? Base64.getEncoder().encodeToString(photoBytes) : null;
-                return new RoomResponse(room.getId(), room.getRoomType(), room.getRoomPrice(), room.isBooked(), new ArrayList<>());
-            });
-
-            return ResponseEntity.ok(roomResponses);
-        } catch (Exception e) {
-            // Handle exceptions appropriately
-            return ResponseEntity.internalServerError().body(null);
+            return ResponseEntity.ok(roomService.getRooms(after, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
     }
 
+    /**
+     * Retrieves a single room, without its bookings.
+     * @param roomId the ID of the room
+     * @return ResponseEntity with the room, or 404 if there is no such room
+     */
+    @GetMapping("/rooms/{roomId}")
+    public ResponseEntity<RoomResponse> getRoomById(@PathVariable Long roomId) {
+        return roomService.getRoomById(roomId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     /**
      * Retrieves available rooms based on date range and room type.
      * @param checkInDate the check-in date
@@ -86,68 +103,116 @@ public class RoomController {
             @RequestParam("checkInDate") @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate checkInDate,
             @RequestParam("checkOutDate") @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate checkOutDate,
             @RequestParam("roomType") String roomType) {
-        try {
-            List<Room> availableRooms = roomService.getAvailableRooms(checkInDate, checkOutDate, roomType);
-            List<RoomResponse> roomResponses = new ArrayList<>();
-
-            for (Room room : availableRooms) {
-                byte[] photoBytes = roomService.getRoomPhotoByRoomId(room.getId());
-                RoomResponse roomResponse = getRoomResponse(room, photoBytes);
-                roomResponses.add(roomResponse);
-            }
-
-            if (roomResponses.isEmpty()) {
-                return ResponseEntity.noContent().build();
-            }
+        List<RoomResponse> roomResponses = roomService.getAvailableRoomResponses(checkInDate, checkOutDate, roomType);
+        if (roomResponses.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(roomResponses);
+    }
 
-            return ResponseEntity.ok(roomResponses);
-        } catch (IOException e) {
-            // Handle exceptions appropriately
-            return ResponseEntity.internalServerError().body(null);
+    /**
+     * Retrieves, for every check-in date in a window, the number of rooms free for the whole stay and the
+     * cheapest of them, e.g. "any 3 nights in the next two weeks".
+     * @param from the first check-in date
+     * @param to the last check-in date
+     * @param nights the length of the stay
+     * @param roomType the type of the room
+     * @return ResponseEntity with the availability calendar, or 400 for an invalid window or stay
+     */
+    @GetMapping("/available-rooms/calendar")
+    public ResponseEntity<AvailabilityCalendar> getAvailabilityCalendar(
+            @RequestParam("from") @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+            @RequestParam("to") @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to,
+            @RequestParam("nights") int nights,
+            @RequestParam("roomType") String roomType) {
+        try {
+            return ResponseEntity.ok(roomService.getAvailabilityCalendar(from, to, nights, roomType));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
     }
 
     /**
-     * Retrieves a room photo by room ID.
+     * Streams a room photo by room ID. The photo key doubles as the ETag, so unchanged photos
+     * are revalidated with a 304 instead of being sent again.
      * @param roomId the ID of the room
-     * @return ResponseEntity with the room photo
+     * @param request the current request, used for the If-None-Match check
+     * @return ResponseEntity with the raw photo bytes
      */
     @GetMapping("/room-photo/{roomId}")
-    public ResponseEntity<String> getRoomPhotoByRoomId(@PathVariable Long roomId) {
-        try {
-            byte[] photoBytes = roomService.getRoomPhotoByRoomId(roomId);
-            String photoBase64 = photoBytes.length > 0 ? Base64.getEncoder().encodeToString(photoBytes) : null;
-
-            if (photoBase64 != null) {
-                return ResponseEntity.ok(photoBase64);
-            } else {
-                return ResponseEntity.noContent().build(); // No photo available
-            }
-        } catch (IOException e) {
-            // Handle exceptions appropriately
-            return ResponseEntity.internalServerError().body(null);
+    public ResponseEntity<Resource> getRoomPhotoByRoomId(@PathVariable Long roomId, WebRequest request) {
+        Optional<String> photoKey = roomService.getRoomPhotoKey(roomId);
+        if (photoKey.isEmpty()) {
+            return ResponseEntity.noContent().build(); // No photo available
         }
+
+        String eTag = "\"" + photoKey.get() + "\"";
+        CacheControl cacheControl = CacheControl.maxAge(PHOTO_MAX_AGE).cachePublic();
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+        }
+
+        Optional<Resource> photo = photoStorageService.load(photoKey.get());
+        if (photo.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(cacheControl)
+                .contentType(MediaTypeFactory.getMediaType(photoKey.get()).orElse(MediaType.APPLICATION_OCTET_STREAM))
+                .body(served(ORIGINAL, photo.get()));
     }
 
     /**
-     * Creates a RoomResponse object from a Room entity and its photo.
-     * @param room the room entity
-     * @param photoBytes the photo bytes of the room
-     * @return RoomResponse with the room details and bookings
+     * Streams a resized variant of a room photo ({@code thumbnail}, {@code medium} or {@code full}).
+     * Until the variant has been generated the original photo is returned, marked as not cacheable.
+     * @param roomId the ID of the room
+     * @param variantName the variant to return
+     * @param request the current request, used for the If-None-Match check
+     * @return ResponseEntity with the photo bytes
      */
-    private RoomResponse getRoomResponse(Room room, byte[] photoBytes) {
-        List<BookedRoom> bookings = getAllBookingsByRoomId(room.getId());
-        List<com.sb.hotel.booking.response.BookingResponse> bookingInfo = bookings
-                        .stream().map(booking -> new com.sb.hotel.booking.response.BookingResponse(booking.getBookingId(),
-                booking.getCheckInDate(), booking.getCheckOutDate(), booking.getBookingConfirmationCode())).toList();
+    @GetMapping("/room-photo/{roomId}/{variant}")
+    public ResponseEntity<Resource> getRoomPhotoVariant(@PathVariable Long roomId,
+                                                        @PathVariable("variant") String variantName,
+                                                        WebRequest request) {
+        Optional<PhotoVariant> variant = PhotoVariant.fromPathName(variantName);
+        if (variant.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<String> photoKey = roomService.getRoomPhotoKey(roomId);
+        if (photoKey.isEmpty()) {
+            return ResponseEntity.noContent().build(); // No photo available
+        }
 
-        String photoBase64 = photoBytes != null ? Base64.getEncoder().encodeToString(photoBytes) : null;
+        Optional<Resource> resized = photoStorageService.loadVariant(photoKey.get(), variant.get());
+        if (resized.isEmpty()) {
+            return photoStorageService.load(photoKey.get())
+                    .map(original -> ResponseEntity.ok()
+                            .cacheControl(CacheControl.noCache())
+                            .contentType(MediaTypeFactory.getMediaType(photoKey.get()).orElse(MediaType.APPLICATION_OCTET_STREAM))
+                            .body(served(ORIGINAL, original)))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        }
 
-        return new RoomResponse(room.getId(), room.getRoomType(), room.getRoomPrice(), room.isBooked(), photoBase64, bookingInfo);
+        String eTag = "\"" + photoKey.get() + "-" + variant.get().pathName() + "\"";
+        CacheControl cacheControl = CacheControl.maxAge(PHOTO_MAX_AGE).cachePublic();
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(cacheControl)
+                .contentType(MediaType.IMAGE_JPEG)
+                .body(served(variant.get().pathName(), resized.get()));
     }
 
-    private List<BookedRoom> getAllBookingsByRoomId(Long roomId) {
-        return bookingService.getAllBookingsByRoomId(roomId);
+    private Resource served(String variant, Resource photo) {
+        try {
+            metrics.photoServed(variant, photo.contentLength());
+        } catch (IOException e) {
+            // Not counted; the response itself will fail on the same file
+        }
+        return photo;
     }
 }
         /*
@@ -170,12 +235,20 @@ roomPrice (Text)
 
  Retrieve All Rooms:
 Open Postman, select GET method.
-Enter the URL: http://localhost:8080/api/rooms
+Enter the URL: http://localhost:8080/api/rooms?size=20
+Next page: http://localhost:8080/api/rooms?size=20&after=<nextCursor from the previous response>
+One room: http://localhost:8080/api/rooms/1
 
 check room availability
 http://localhost:8080/api/available-rooms?checkInDate=2024-09-01&checkOutDate=2024-09-10&roomType=Deluxe
 
+any 3 nights with check-in between two dates, with the cheapest room per check-in date
+http://localhost:8080/api/available-rooms/calendar?from=2024-09-01&to=2024-09-14&nights=3&roomType=Deluxe
+
 Retrive photo by room id
 http://localhost:8080/api/room-photo/1
 
+Retrive thumbnail / medium / full variant by room id
+http://localhost:8080/api/room-photo/1/thumbnail
+
          */
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.sb.hotel.booking.controller;
+
+import com.sb.hotel.booking.Response.RoomResponse;
+import com.sb.hotel.booking.service.ReactiveRoomSearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+
+/**
+ * Handlers of the reactive {@code /api/v2} routes, served by the {@link com.sb.hotel.booking.config.ReactiveApiServer}.
+ */
+@Component
+@RequiredArgsConstructor
+public class RoomSearchHandler {
+
+    private final ReactiveRoomSearchService roomSearchService;
+
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                .GET("/api/v2/available-rooms", this::getAvailableRooms)
+                .build();
+    }
+
+    /**
+     * Streams the available rooms as soon as each is read: as Server-Sent Events when the client accepts
+     * {@code text/event-stream}, otherwise as newline-delimited JSON.
+     * @param request the request with checkInDate, checkOutDate (yyyy-MM-dd) and roomType parameters
+     * @return the streamed rooms, or 400 if a parameter is missing or the dates are invalid
+     */
+    public Mono<ServerResponse> getAvailableRooms(ServerRequest request) {
+        Optional<String> roomType = request.queryParam("roomType");
+        LocalDate checkInDate;
+        LocalDate checkOutDate;
+        try {
+            checkInDate = request.queryParam("checkInDate").map(LocalDate::parse).orElse(null);
+            checkOutDate = request.queryParam("checkOutDate").map(LocalDate::parse).orElse(null);
+        } catch (DateTimeParseException e) {
+            return ServerResponse.badRequest().bodyValue("Dates must be formatted as yyyy-MM-dd");
+        }
+        if (checkInDate == null || checkOutDate == null || roomType.isEmpty()) {
+            return ServerResponse.badRequest().bodyValue("checkInDate, checkOutDate and roomType are required");
+        }
+        if (!checkOutDate.isAfter(checkInDate)) {
+            return ServerResponse.badRequest().bodyValue("Check-out date must be after check-in date");
+        }
+
+        MediaType mediaType = request.headers().accept().contains(MediaType.TEXT_EVENT_STREAM)
+                ? MediaType.TEXT_EVENT_STREAM : MediaType.APPLICATION_NDJSON;
+        return ServerResponse.ok()
+                .contentType(mediaType)
+                .body(roomSearchService.findAvailableRooms(checkInDate, checkOutDate, roomType.get()), RoomResponse.class);
+    }
+}
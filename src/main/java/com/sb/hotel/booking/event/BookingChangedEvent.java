@@ -0,0 +1,54 @@
+package com.sb.hotel.booking.event;
+
+import com.sb.hotel.booking.models.BookedRoom;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+/**
+ * Published by the booking service whenever a booking is created, updated or cancelled.
+ * Listeners that keep derived state (indexes, caches) should react after the transaction commits.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class BookingChangedEvent {
+
+    public enum Type { CREATED, UPDATED, CANCELLED }
+
+    private final Type type;
+    private final Long bookingId;
+    private final Long roomId;
+    private final LocalDate checkInDate;
+    private final LocalDate checkOutDate;
+    private final String guestEmail;
+    /**
+     * The guest email the booking had before an update, or null if it did not change.
+     */
+    private final String previousGuestEmail;
+
+    public static BookingChangedEvent created(BookedRoom booking) {
+        return of(Type.CREATED, booking, null);
+    }
+
+    /**
+     * @param booking the updated booking
+     * @param previousGuestEmail the guest email before the update
+     */
+    public static BookingChangedEvent updated(BookedRoom booking, String previousGuestEmail) {
+        boolean emailChanged = previousGuestEmail != null && !previousGuestEmail.equals(booking.getGuestEmail());
+        return of(Type.UPDATED, booking, emailChanged ? previousGuestEmail : null);
+    }
+
+    public static BookingChangedEvent cancelled(BookedRoom booking) {
+        return of(Type.CANCELLED, booking, null);
+    }
+
+    private static BookingChangedEvent of(Type type, BookedRoom booking, String previousGuestEmail) {
+        Long roomId = booking.getRoom() != null ? booking.getRoom().getId() : null;
+        return new BookingChangedEvent(type, booking.getBookingId(), roomId,
+                booking.getCheckInDate(), booking.getCheckOutDate(), booking.getGuestEmail(), previousGuestEmail);
+    }
+}
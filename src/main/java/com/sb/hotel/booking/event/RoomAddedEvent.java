@@ -0,0 +1,17 @@
+package com.sb.hotel.booking.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published by the room service after a new room has been saved.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class RoomAddedEvent {
+
+    private final Long roomId;
+    private final String roomType;
+}
@@ -0,0 +1,11 @@
+package com.sb.hotel.booking.exception;
+
+/**
+ * Thrown when a booking overlaps an existing booking of the same room.
+ */
+public class RoomNotAvailableException extends RuntimeException {
+
+    public RoomNotAvailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,154 @@
+package com.sb.hotel.booking.metrics;
+
+import com.sb.hotel.booking.availability.RoomAvailabilityIndex;
+import com.sb.hotel.booking.exception.RoomNotAvailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Application meters on the booking and search hot paths, next to the ones Spring Boot records on its own
+ * ({@code http.server.requests}, {@code hikaricp.connections.acquire}, {@code cache.gets}, ...).
+ * <p>
+ * Timers and summaries publish histogram buckets, so percentiles can be aggregated across nodes on the
+ * Prometheus side, and the buckets carry the trace of a recent request as an exemplar.
+ */
+@Component
+public class HotelMetrics {
+
+    public static final String AVAILABILITY_SEARCH = "hotel.availability.search";
+    public static final String AVAILABILITY_SEARCH_REQUESTS = "hotel.availability.search.requests";
+    public static final String BOOKINGS = "hotel.bookings";
+    public static final String PHOTO_BYTES = "hotel.photo.bytes.served";
+    public static final String REQUEST_STATEMENTS = "hotel.http.server.statements";
+
+    public static final String SUCCESS = "success";
+    public static final String CONFLICT = "conflict";
+    public static final String ERROR = "error";
+
+    public static final String EXECUTED = "executed";
+    public static final String COALESCED = "coalesced";
+    public static final String CACHED = "cached";
+
+    static final String ANY_ROOM_TYPE = "any";
+    static final String OTHER_ROOM_TYPE = "other";
+
+    private final MeterRegistry registry;
+    private final RoomAvailabilityIndex availabilityIndex;
+
+    public HotelMetrics(MeterRegistry registry, RoomAvailabilityIndex availabilityIndex) {
+        this.registry = registry;
+        this.availabilityIndex = availabilityIndex;
+    }
+
+    public Timer.Sample startSearch() {
+        return Timer.start(registry);
+    }
+
+    /**
+     * Records the latency of an availability search.
+     * @param sample the sample started when the search began
+     * @param search the kind of search, e.g. {@code list} or {@code calendar}
+     * @param roomType the room type searched for
+     * @param source what answered it: {@code index} or {@code sql}
+     */
+    public void stopSearch(Timer.Sample sample, String search, String roomType, String source) {
+        sample.stop(Timer.builder(AVAILABILITY_SEARCH)
+                .description("Latency of availability searches")
+                .tag("search", search)
+                .tag("roomType", roomTypeTag(roomType))
+                .tag("source", source)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    /**
+     * Counts an availability search request by how it was answered: {@code executed} when it ran the search,
+     * {@code coalesced} when it shared an identical search already running, or {@code cached} when it got a
+     * result that had just been computed. The coalescing ratio is the share of requests not executed.
+     * @param search the kind of search, e.g. {@code list} or {@code page}
+     * @param outcome {@link #EXECUTED}, {@link #COALESCED} or {@link #CACHED}
+     */
+    public void searchRequest(String search, String outcome) {
+        Counter.builder(AVAILABILITY_SEARCH_REQUESTS)
+                .description("Availability search requests by how they were answered")
+                .tag("search", search)
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Runs a booking operation and counts its outcome: {@code success}, {@code conflict} when the room is
+     * taken, or {@code error} when it throws anything else or returns {@code false}.
+     * @param operation the operation, e.g. {@code create} or {@code cancel}
+     * @param action the operation itself
+     * @return what the operation returned
+     */
+    public <T> T recordBooking(String operation, Supplier<T> action) {
+        String outcome = ERROR;
+        try {
+            T result = action.get();
+            outcome = Boolean.FALSE.equals(result) ? ERROR : SUCCESS;
+            return result;
+        } catch (RoomNotAvailableException e) {
+            outcome = CONFLICT;
+            throw e;
+        } finally {
+            Counter.builder(BOOKINGS)
+                    .description("Booking operations by outcome")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(registry)
+                    .increment();
+        }
+    }
+
+    /**
+     * Counts the bytes of a room photo sent in a response.
+     * @param variant {@code original}, or the name of the resized variant
+     * @param bytes the size of the photo
+     */
+    public void photoServed(String variant, long bytes) {
+        if (bytes < 0) {
+            return;
+        }
+        DistributionSummary.builder(PHOTO_BYTES)
+                .description("Bytes of room photos sent")
+                .baseUnit("bytes")
+                .tag("variant", variant)
+                .register(registry)
+                .record(bytes);
+    }
+
+    /**
+     * Records how many SQL statements Hibernate prepared while serving a request.
+     * @param method the HTTP method
+     * @param uri the matched route pattern, not the raw path
+     * @param statements the number of statements
+     */
+    public void requestStatements(String method, String uri, int statements) {
+        DistributionSummary.builder(REQUEST_STATEMENTS)
+                .description("SQL statements prepared per request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(1000.0)
+                .register(registry)
+                .record(statements);
+    }
+
+    /**
+     * Room types are typed in by guests, so only the types of existing rooms get a series of their own.
+     */
+    String roomTypeTag(String roomType) {
+        if (roomType == null || roomType.isBlank()) {
+            return ANY_ROOM_TYPE;
+        }
+        return availabilityIndex.isKnownRoomType(roomType) ? roomType : OTHER_ROOM_TYPE;
+    }
+}
@@ -0,0 +1,92 @@
+package com.sb.hotel.booking.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between {@link #start()} and
+ * {@link #stop()}. Registered as the session factory's statement inspector; threads that never called
+ * {@link #start()} are not counted.
+ * <p>
+ * Counts nest: statements counted for a request are also counted for a test that made the request.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<Frame> CURRENT = new ThreadLocal<>();
+
+    public static void start() {
+        start(false);
+    }
+
+    /**
+     * Starts counting on the current thread, inside any count already running.
+     * @param keepSql whether to keep the statements themselves, see {@link #statements()}
+     */
+    public static void start(boolean keepSql) {
+        Frame parent = CURRENT.get();
+        CURRENT.set(new Frame(parent, keepSql || (parent != null && parent.sql != null)));
+    }
+
+    /**
+     * Stops the innermost count on the current thread.
+     * @return the statements prepared since the matching {@link #start()}, or 0 if counting was not started
+     */
+    public static int stop() {
+        Frame frame = CURRENT.get();
+        if (frame == null) {
+            return 0;
+        }
+        if (frame.parent == null) {
+            CURRENT.remove();
+        } else {
+            frame.parent.count += frame.count;
+            if (frame.parent.sql != null) {
+                frame.parent.sql.addAll(frame.sql);
+            }
+            CURRENT.set(frame.parent);
+        }
+        return frame.count;
+    }
+
+    /**
+     * The statements prepared so far by the innermost count on the current thread, or 0 if none is running.
+     */
+    public static int current() {
+        Frame frame = CURRENT.get();
+        return frame == null ? 0 : frame.count;
+    }
+
+    /**
+     * The statements prepared so far by the innermost count, if it was started to keep them.
+     */
+    public static List<String> statements() {
+        Frame frame = CURRENT.get();
+        return frame == null || frame.sql == null ? List.of() : List.copyOf(frame.sql);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Frame frame = CURRENT.get();
+        if (frame != null) {
+            frame.count++;
+            if (frame.sql != null) {
+                frame.sql.add(sql);
+            }
+        }
+        return sql;
+    }
+
+    private static final class Frame {
+
+        private final Frame parent;
+        private final List<String> sql;
+        private int count;
+
+        private Frame(Frame parent, boolean keepSql) {
+            this.parent = parent;
+            this.sql = keepSql ? new ArrayList<>() : null;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.sb.hotel.booking.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Records the number of SQL statements each request makes, by route. Statements run on other threads
+ * (e.g. while a streamed export is written) are not included.
+ * <p>
+ * With {@code sql.statement-count.header=true} (the {@code dev} profile) the count is also sent as the
+ * {@value #HEADER} response header. Headers go out with the first byte of the body, so the header holds the
+ * statements made up to then; statements made while the body is written only reach the metric.
+ */
+@Component
+public class SqlStatementMetricsFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-SQL-Statement-Count";
+
+    private final HotelMetrics metrics;
+    private final boolean header;
+
+    public SqlStatementMetricsFilter(HotelMetrics metrics, @Value("${sql.statement-count.header:false}") boolean header) {
+        this.metrics = metrics;
+        this.header = header;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatementCounter.start();
+        try {
+            if (header) {
+                StatementCountResponse counted = new StatementCountResponse(response);
+                chain.doFilter(request, counted);
+                counted.addCountHeader();
+            } else {
+                chain.doFilter(request, response);
+            }
+        } finally {
+            int statements = SqlStatementCounter.stop();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            metrics.requestStatements(request.getMethod(), pattern == null ? "UNKNOWN" : pattern.toString(), statements);
+        }
+    }
+
+    /**
+     * Adds the count header just before the response is committed.
+     */
+    private static final class StatementCountResponse extends HttpServletResponseWrapper {
+
+        private boolean headerAdded;
+
+        private StatementCountResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        void addCountHeader() {
+            if (!headerAdded && !isCommitted()) {
+                setIntHeader(HEADER, SqlStatementCounter.current());
+            }
+            headerAdded = true;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addCountHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addCountHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addCountHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addCountHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addCountHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addCountHeader();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -9,18 +9,28 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "bookedRoom")
+@Table(indexes = {
+        @Index(name = "idx_booked_room_room_dates", columnList = "room_id, checkInDate, checkOutDate"),
+        @Index(name = "idx_booked_room_check_in", columnList = "checkInDate, bookingId")
+})
 @Getter
 @Setter
 @ToString(exclude = "room")
 @EqualsAndHashCode(of = "bookingId")
 public class BookedRoom {
 
+    // Sequence with a pooled optimizer, so Hibernate can assign IDs without a round trip per row and batch inserts.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booked_room_seq")
+    @SequenceGenerator(name = "booked_room_seq", sequenceName = "booked_room_seq", allocationSize = 50)
     private Long bookingId;
 
    // @NotNull(message = "Check-in date cannot be null")
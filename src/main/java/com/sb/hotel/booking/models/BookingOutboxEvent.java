@@ -0,0 +1,65 @@
+package com.sb.hotel.booking.models;
+
+import com.sb.hotel.booking.event.BookingChangedEvent;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A booking change waiting to be relayed to the audit log: written in the same transaction as the change,
+ * so the log misses no committed change and holds no rolled-back one, and deleted once the relay has
+ * appended it (see {@code OutboxRelay}).
+ */
+@Entity
+@Table(name = "booking_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+public class BookingOutboxEvent {
+
+    // Pooled sequence, as for bookings: no extra round trip on the booking path
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_outbox_seq")
+    @SequenceGenerator(name = "booking_outbox_seq", sequenceName = "booking_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 16)
+    private BookingChangedEvent.Type type;
+
+    @Column(name = "booking_id", nullable = false)
+    private Long bookingId;
+
+    @Column(name = "room_id")
+    private Long roomId;
+
+    @Column(name = "check_in_date")
+    private LocalDate checkInDate;
+
+    @Column(name = "check_out_date")
+    private LocalDate checkOutDate;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    public BookingOutboxEvent(BookingChangedEvent event, Instant occurredAt) {
+        this.type = event.getType();
+        this.bookingId = event.getBookingId();
+        this.roomId = event.getRoomId();
+        this.checkInDate = event.getCheckInDate();
+        this.checkOutDate = event.getCheckOutDate();
+        this.occurredAt = occurredAt;
+    }
+}
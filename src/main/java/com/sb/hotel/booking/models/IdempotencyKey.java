@@ -0,0 +1,47 @@
+package com.sb.hotel.booking.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * The outcome of a booking request sent with an {@code Idempotency-Key} header: written in the booking's
+ * transaction, so a key is stored exactly when its booking is, and purged after the retention period
+ * (see {@code IdempotentBookings}).
+ */
+@Entity
+@Table(name = "idempotency_key", indexes = @Index(name = "idx_idempotency_key_created_at", columnList = "created_at"))
+@Getter
+@NoArgsConstructor
+public class IdempotencyKey {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    // Assigned by the client; the primary key is what stops two nodes from storing the same key twice
+    @Id
+    @Column(name = "idempotency_key", length = MAX_KEY_LENGTH)
+    private String key;
+
+    // Hash of the request the key was first used with, so a key reused for another request is rejected
+    @Column(name = "request_fingerprint", nullable = false, length = 64)
+    private String requestFingerprint;
+
+    @Column(name = "confirmation_code", nullable = false)
+    private String confirmationCode;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public IdempotencyKey(String key, String requestFingerprint, String confirmationCode, Instant createdAt) {
+        this.key = key;
+        this.requestFingerprint = requestFingerprint;
+        this.confirmationCode = confirmationCode;
+        this.createdAt = createdAt;
+    }
+}
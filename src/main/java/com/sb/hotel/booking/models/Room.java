@@ -1,7 +1,6 @@
 package com.sb.hotel.booking.models;
 
 import java.math.BigDecimal;
-//import java.sql.Blob;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -10,18 +9,23 @@ import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.*;
-import org.apache.commons.lang3.RandomStringUtils;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.Lob;
 import jakarta.persistence.OneToMany;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "room")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -48,28 +52,27 @@ public class Room {
 
     private boolean isBooked = false;
 
-    @Lob
-    private byte[] photo; // Changed from Blob to byte[]
-    // private Blob photo;
-    // Use Blob if you expect to handle very large binary data that might exceed memory constraints or require streaming.
-    /*
-    Use byte[]. It’s typically recommended for most applications unless you have specific requirements for handling very large binary data.
-    It simplifies the code and avoids additional complexity in managing Blob objects.
-     */
+    // Key of the photo in the PhotoStorageService; the bytes live outside the room row.
+    @Column(length = 80)
+    private String photoKey;
 
     @OneToMany(mappedBy = "room", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     private List<BookedRoom> bookings = new ArrayList<>();
 
+    /**
+     * Attaches a booking to this room. Only the owning side ({@link BookedRoom#getRoom()}) is set, so the
+     * lazy bookings collection is not loaded; the booking must be saved through the BookingRepository.
+     * The booking's confirmation code is assigned by the BookingService.
+     */
     public void addBooking(BookedRoom booking) {
         if (booking == null) {
             throw new IllegalArgumentException("Booking cannot be null");
         }
-        bookings.add(booking);
+        if (Hibernate.isInitialized(bookings)) {
+            bookings.add(booking);
+        }
         booking.setRoom(this);
         isBooked = true;
-
-        String bookingCode = RandomStringUtils.randomNumeric(10);
-        booking.setBookingConfirmationCode(bookingCode);
     }
 
     public List<BookedRoom> getBookings() {
@@ -0,0 +1,61 @@
+package com.sb.hotel.booking.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * One sold night of a room: the room is occupied from {@code stayDate} to the next day by {@code bookingId}.
+ * <p>
+ * A projection of {@link BookedRoom}, written in the same transaction as the booking. Free nights have no
+ * row, so the table grows with the bookings rather than with rooms times days, and "free on every night
+ * between two dates" is a primary-key range probe per room. The primary key also makes the database
+ * reject two bookings of the same room-night.
+ */
+@Entity
+@Table(name = "room_day_inventory", indexes = {
+        @Index(name = "idx_room_day_inventory_booking", columnList = "booking_id")
+})
+@IdClass(RoomDayInventory.RoomNight.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode(of = {"roomId", "stayDate"})
+public class RoomDayInventory {
+
+    @Id
+    @Column(name = "room_id")
+    private Long roomId;
+
+    @Id
+    @Column(name = "stay_date")
+    private LocalDate stayDate;
+
+    @Column(name = "booking_id", nullable = false)
+    private Long bookingId;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class RoomNight implements Serializable {
+
+        private Long roomId;
+        private LocalDate stayDate;
+    }
+}
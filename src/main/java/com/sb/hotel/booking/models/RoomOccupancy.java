@@ -0,0 +1,49 @@
+package com.sb.hotel.booking.models;
+
+import com.sb.hotel.booking.availability.OccupancyCalendar;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * The sold nights of a room as an {@link OccupancyCalendar}, stored as {@code bytea} next to the bookings it
+ * is derived from and written in the same transaction. The window starts on {@code originDate}; a row
+ * whose window has fallen behind is rebuilt from the bookings on its next use.
+ */
+@Entity
+@Table(name = "room_occupancy")
+@Getter
+@Setter
+@NoArgsConstructor
+public class RoomOccupancy {
+
+    @Id
+    @Column(name = "room_id")
+    private Long roomId;
+
+    @Column(name = "origin_date", nullable = false)
+    private LocalDate originDate;
+
+    @Column(name = "nights", nullable = false, length = OccupancyCalendar.BYTES)
+    private byte[] nights;
+
+    public RoomOccupancy(Long roomId, OccupancyCalendar calendar) {
+        this.roomId = roomId;
+        setCalendar(calendar);
+    }
+
+    public OccupancyCalendar getCalendar() {
+        return OccupancyCalendar.fromBytes(originDate.toEpochDay(), nights);
+    }
+
+    public void setCalendar(OccupancyCalendar calendar) {
+        this.originDate = LocalDate.ofEpochDay(calendar.getOrigin());
+        this.nights = calendar.toBytes();
+    }
+}
@@ -0,0 +1,26 @@
+package com.sb.hotel.booking.repository;
+
+import com.sb.hotel.booking.models.BookingOutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
+
+public interface BookingOutboxRepository extends JpaRepository<BookingOutboxEvent, Long> {
+
+    /**
+     * Locks the oldest pending events, skipping the ones another relay has locked, so nodes relaying at
+     * the same time do not append the same event twice.
+     * @param limit the most events to return
+     * @return the events, oldest first
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2")) // LockOptions.SKIP_LOCKED
+    @Query("SELECT e FROM BookingOutboxEvent e ORDER BY e.id")
+    List<BookingOutboxEvent> findOldestForUpdate(Limit limit);
+}
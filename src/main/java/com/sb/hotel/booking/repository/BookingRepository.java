@@ -1,16 +1,37 @@
 package com.sb.hotel.booking.repository;
 
 import com.sb.hotel.booking.models.BookedRoom;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import com.sb.hotel.booking.repository.projection.BookingIntervalView;
+import com.sb.hotel.booking.repository.projection.BookingSummaryView;
+import com.sb.hotel.booking.response.BookingResponse;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<BookedRoom, Long> {
 
+    /**
+     * Selects the date range of booking {@code b} into a {@link BookingIntervalView}, without loading the entity.
+     */
+    String SELECT_INTERVAL = "SELECT new com.sb.hotel.booking.repository.projection.BookingIntervalView("
+            + "b.bookingId, b.room.id, b.checkInDate, b.checkOutDate) FROM BookedRoom b ";
+
+    /**
+     * Selects the listed fields of booking {@code b} into a {@link BookingResponse}, without loading the entity.
+     */
+    String SELECT_RESPONSE = "SELECT new com.sb.hotel.booking.response.BookingResponse("
+            + "b.bookingId, b.checkInDate, b.checkOutDate, b.bookingConfirmationCode) FROM BookedRoom b ";
+
     /**
      * Finds all booked rooms by room ID.
      * @param roomId the ID of the room
@@ -18,6 +39,21 @@ public interface BookingRepository extends JpaRepository<BookedRoom, Long> {
      */
     List<BookedRoom> findByRoomId(Long roomId);
 
+    /**
+     * Finds the bookings of a room without loading them.
+     * @param roomId the ID of the room
+     * @return the bookings, ordered by check-in date
+     */
+    @Query(SELECT_RESPONSE + "WHERE b.room.id = :roomId ORDER BY b.checkInDate, b.bookingId")
+    List<BookingResponse> findResponsesByRoomId(@Param("roomId") Long roomId);
+
+    /**
+     * Finds every booking.
+     * @return the bookings, ordered by ID
+     */
+    @Query(SELECT_RESPONSE + "ORDER BY b.bookingId")
+    List<BookingResponse> findAllResponses();
+
     /**
      * Finds a booked room by its confirmation code.
      * @param confirmationCode the booking confirmation code
@@ -26,22 +62,154 @@ public interface BookingRepository extends JpaRepository<BookedRoom, Long> {
     Optional<BookedRoom> findByBookingConfirmationCode(String confirmationCode);
 
     /**
-     * Finds booked rooms by guest email.
-     * @param guestEmail the guest's email
-     * @param pageable pagination information
-     * @return a page of booked rooms
+     * Keyset page over a guest's bookings ordered by (checkInDate, bookingId). The email is compared in lower
+     * case, which on PostgreSQL is served by the {@code idx_booked_room_guest_lower} expression index.
+     * @param guestEmail the guest's email, in lower case
+     * @param afterDate check-in date of the last booking on the previous page
+     * @param afterId ID of the last booking on the previous page
+     * @param limit the maximum number of bookings
+     * @return the bookings after the given position
      */
-    Page<BookedRoom> findByGuestEmail(String guestEmail, Pageable pageable);
+    @Query(SELECT_RESPONSE + "WHERE lower(b.guestEmail) = :guestEmail "
+            + "AND (b.checkInDate > :afterDate OR (b.checkInDate = :afterDate AND b.bookingId > :afterId)) "
+            + "ORDER BY b.checkInDate, b.bookingId")
+    List<BookingResponse> findByGuestEmailAfter(@Param("guestEmail") String guestEmail,
+                                                @Param("afterDate") LocalDate afterDate,
+                                                @Param("afterId") Long afterId,
+                                                Limit limit);
 
     /**
-     * Finds all booked rooms with a check-in date within a specified range.
+     * Keyset page over bookings with a check-in date within a range, ordered by (checkInDate, bookingId).
      * @param startDate the start date of the range
      * @param endDate the end date of the range
-     * @param pageable pagination information
-     * @return a page of booked rooms
+     * @param afterDate check-in date of the last booking on the previous page
+     * @param afterId ID of the last booking on the previous page
+     * @param limit the maximum number of bookings
+     * @return the bookings after the given position
+     */
+    @Query(SELECT_RESPONSE + "WHERE b.checkInDate BETWEEN :startDate AND :endDate "
+            + "AND (b.checkInDate > :afterDate OR (b.checkInDate = :afterDate AND b.bookingId > :afterId)) "
+            + "ORDER BY b.checkInDate, b.bookingId")
+    List<BookingResponse> findByCheckInDateBetweenAfter(@Param("startDate") LocalDate startDate,
+                                                        @Param("endDate") LocalDate endDate,
+                                                        @Param("afterDate") LocalDate afterDate,
+                                                        @Param("afterId") Long afterId,
+                                                        Limit limit);
+
+    /**
+     * Streams every booking through a server-side cursor, fetching rows from the database in chunks.
+     * Must be consumed inside a (read-only) transaction and closed afterwards.
+     * @return all bookings ordered by ID
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT b FROM BookedRoom b ORDER BY b.bookingId")
+    Stream<BookedRoom> streamAllOrderedById();
+
+    /**
+     * Checks whether a room has a booking overlapping [checkInDate, checkOutDate) without loading any booking.
+     * Backed by the (room_id, check_in_date, check_out_date) index.
+     * @param roomId the ID of the room
+     * @param checkInDate the requested check-in date
+     * @param checkOutDate the requested check-out date
+     * @return true if an overlapping booking exists
+     */
+    default boolean existsOverlappingBooking(Long roomId, LocalDate checkInDate, LocalDate checkOutDate) {
+        return existsByRoomIdAndCheckInDateBeforeAndCheckOutDateAfter(roomId, checkOutDate, checkInDate);
+    }
+
+    /**
+     * Same as {@link #existsOverlappingBooking(Long, LocalDate, LocalDate)}, ignoring one booking
+     * (the one being updated).
      */
-    Page<BookedRoom> findByCheckInDateBetween(LocalDate startDate, LocalDate endDate, Pageable pageable);
+    default boolean existsOverlappingBookingExcept(Long roomId, LocalDate checkInDate, LocalDate checkOutDate,
+                                                   Long bookingId) {
+        return existsByRoomIdAndCheckInDateBeforeAndCheckOutDateAfterAndBookingIdNot(roomId, checkOutDate, checkInDate,
+                bookingId);
+    }
 
+    boolean existsByRoomIdAndCheckInDateBeforeAndCheckOutDateAfter(Long roomId, LocalDate checkOutDate,
+                                                                    LocalDate checkInDate);
 
+    boolean existsByRoomIdAndCheckInDateBeforeAndCheckOutDateAfterAndBookingIdNot(Long roomId, LocalDate checkOutDate,
+                                                                                  LocalDate checkInDate, Long bookingId);
 
+    /**
+     * Finds the room of a booking without loading the booking.
+     * @param bookingId the ID of the booking
+     * @return the room ID, or an empty Optional if the booking does not exist
+     */
+    @Query("SELECT b.room.id FROM BookedRoom b WHERE b.bookingId = :bookingId")
+    Optional<Long> findRoomIdByBookingId(@Param("bookingId") Long bookingId);
+
+    /**
+     * Finds the date ranges of all bookings that end after the given date.
+     * @param date bookings checking out on or before this date are skipped
+     * @return the booking intervals
+     */
+    @Query(SELECT_INTERVAL + "WHERE b.checkOutDate > :date")
+    List<BookingIntervalView> findIntervalsEndingAfter(@Param("date") LocalDate date);
+
+    /**
+     * Finds the date ranges of the bookings in an ID range.
+     * @param fromId the first booking ID
+     * @param toId the last booking ID
+     * @return the booking intervals
+     */
+    @Query(SELECT_INTERVAL + "WHERE b.bookingId BETWEEN :fromId AND :toId")
+    List<BookingIntervalView> findIntervalsByBookingIdBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /**
+     * Finds bookings of at least one night that have no rows in the room day inventory.
+     * @param limit the maximum number of IDs
+     * @return the booking IDs
+     */
+    @Query("SELECT b.bookingId FROM BookedRoom b WHERE b.checkOutDate > b.checkInDate "
+            + "AND NOT EXISTS (SELECT d.bookingId FROM RoomDayInventory d WHERE d.bookingId = b.bookingId)")
+    List<Long> findBookingIdsWithoutInventory(Limit limit);
+
+    @Query("SELECT MIN(b.bookingId) FROM BookedRoom b")
+    Optional<Long> findMinBookingId();
+
+    @Query("SELECT MAX(b.bookingId) FROM BookedRoom b")
+    Optional<Long> findMaxBookingId();
+
+    /**
+     * Finds the bookings of several rooms that overlap a date window, in a single query.
+     * @param roomIds the IDs of the rooms
+     * @param startDate the start of the window
+     * @param endDate the end of the window (exclusive)
+     * @return the booking intervals
+     */
+    @Query(SELECT_INTERVAL + "WHERE b.room.id IN :roomIds "
+            + "AND b.checkInDate < :endDate AND b.checkOutDate > :startDate")
+    List<BookingIntervalView> findIntervalsOverlapping(@Param("roomIds") Collection<Long> roomIds,
+                                                       @Param("startDate") LocalDate startDate,
+                                                       @Param("endDate") LocalDate endDate);
+
+    /**
+     * Finds the bookings that overlap a date window, of every room whose type contains the given text.
+     * @param roomType the text to match
+     * @param startDate the start of the window
+     * @param endDate the end of the window (exclusive)
+     * @return the booking intervals
+     */
+    @Query(SELECT_INTERVAL + "WHERE b.room.roomType LIKE %:roomType% "
+            + "AND b.checkInDate < :endDate AND b.checkOutDate > :startDate")
+    List<BookingIntervalView> findIntervalsOverlappingForRoomType(@Param("roomType") String roomType,
+                                                                  @Param("startDate") LocalDate startDate,
+                                                                  @Param("endDate") LocalDate endDate);
+
+    /**
+     * Finds the bookings of several rooms in a single query.
+     * @param roomIds the IDs of the rooms
+     * @return the booking summaries, ordered by room and check-in date
+     */
+    @Query("SELECT new com.sb.hotel.booking.repository.projection.BookingSummaryView(b.bookingId, b.room.id, "
+            + "b.checkInDate, b.checkOutDate, b.bookingConfirmationCode) "
+            + "FROM BookedRoom b WHERE b.room.id IN :roomIds ORDER BY b.room.id, b.checkInDate")
+    List<BookingSummaryView> findSummariesByRoomIdIn(@Param("roomIds") Collection<Long> roomIds);
 }
@@ -0,0 +1,22 @@
+package com.sb.hotel.booking.repository;
+
+import com.sb.hotel.booking.models.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    /**
+     * Deletes the keys stored before a point in time, in one statement.
+     * @param cutoff the oldest creation time to keep
+     * @return the number of keys deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.createdAt < :cutoff")
+    int deleteCreatedBefore(Instant cutoff);
+}
@@ -0,0 +1,36 @@
+package com.sb.hotel.booking.repository;
+
+import com.sb.hotel.booking.models.RoomDayInventory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface RoomDayInventoryRepository extends JpaRepository<RoomDayInventory, RoomDayInventory.RoomNight> {
+
+    /**
+     * Counts the nights held by a booking.
+     * @param bookingId the ID of the booking
+     * @return the number of inventory rows of the booking
+     */
+    long countByBookingId(Long bookingId);
+
+    /**
+     * Frees the nights held by a booking.
+     * @param bookingId the ID of the booking
+     * @return the number of rows deleted
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM RoomDayInventory d WHERE d.bookingId = :bookingId")
+    int deleteByBookingId(@Param("bookingId") Long bookingId);
+
+    /**
+     * Frees the nights held by every booking in an ID range.
+     * @param fromId the first booking ID
+     * @param toId the last booking ID
+     * @return the number of rows deleted
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM RoomDayInventory d WHERE d.bookingId BETWEEN :fromId AND :toId")
+    int deleteByBookingIdBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
+}
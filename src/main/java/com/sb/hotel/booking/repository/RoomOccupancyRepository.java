@@ -0,0 +1,7 @@
+package com.sb.hotel.booking.repository;
+
+import com.sb.hotel.booking.models.RoomOccupancy;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface RoomOccupancyRepository extends JpaRepository<RoomOccupancy, Long> {
+}
@@ -1,25 +1,50 @@
 package com.sb.hotel.booking.repository;
 
 import com.sb.hotel.booking.models.Room;
+import com.sb.hotel.booking.repository.projection.RoomSummaryView;
+import com.sb.hotel.booking.repository.projection.RoomTypeView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface RoomRepository extends JpaRepository<Room, Long> {
 
     /**
-     * Finds available rooms by room type and date range.
+     * Condition on room {@code r}: no night from :checkInDate up to (excluding) :checkOutDate is sold in the
+     * {@code room_day_inventory}. One primary-key range probe per room, however many bookings the room has.
+     */
+    String FREE_ON_EVERY_NIGHT = "NOT EXISTS (SELECT d.roomId FROM RoomDayInventory d WHERE d.roomId = r.id "
+            + "AND d.stayDate >= :checkInDate AND d.stayDate < :checkOutDate)";
+
+    /**
+     * Selects the listing columns of room {@code r} into a {@link RoomSummaryView}, without loading the entity.
+     */
+    String SELECT_SUMMARY = "SELECT new com.sb.hotel.booking.repository.projection.RoomSummaryView("
+            + "r.id, r.roomType, r.roomPrice, r.isBooked, r.photoKey) FROM Room r ";
+
+    /**
+     * Finds available rooms by room type and date range. A room is only returned if none of its nights in
+     * the range is sold, whichever of its bookings holds them.
      *
      * @param checkInDate  the check-in date
      * @param checkOutDate the check-out date
      * @param roomType     the type of the room
      * @param pageable
-     * @return a list of available rooms that match the criteria
+     * @return a page of the listing columns of the available rooms that match the criteria
      */
 //    @Query("SELECT r FROM Room r "
 //            + "WHERE r.roomType LIKE %:roomType% "
@@ -28,18 +53,101 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
 //            + "    WHERE (br.checkInDate < :checkOutDate AND br.checkOutDate > :checkInDate)"
 //            + ")")
 //    Page<Room> findAvailableRoomsByDatesAndType(LocalDate checkInDate, LocalDate checkOutDate, String roomType, Pageable pageable);
-        @Query("SELECT r FROM Room r LEFT JOIN r.bookings b " +
-                "WHERE r.roomType = :roomType AND (b.checkOutDate <= :checkInDate " +
-                "OR b.checkInDate >= :checkOutDate OR b.id IS NULL)")
-        Page<Room> findAvailableRoomsByDatesAndType(@Param("checkInDate") LocalDate checkInDate, @Param("checkOutDate") LocalDate checkOutDate, @Param("roomType") String roomType, Pageable pageable);
-
-
-    @Query("SELECT r FROM Room r "
-            + "WHERE r.roomType LIKE %:roomType% "
-            + "AND r.id NOT IN ("
-            + "    SELECT br.room.id FROM BookedRoom br "
-            + "    WHERE (br.checkInDate < :checkOutDate AND br.checkOutDate > :checkInDate)"
-            + ")")
-    List<Room> findAvailableRoomsByDatesAndType(LocalDate checkInDate, LocalDate checkOutDate, String roomType);
+    @Query(value = SELECT_SUMMARY + "WHERE r.roomType = :roomType AND " + FREE_ON_EVERY_NIGHT,
+            countQuery = "SELECT COUNT(r) FROM Room r WHERE r.roomType = :roomType AND " + FREE_ON_EVERY_NIGHT)
+    Page<RoomSummaryView> findAvailableSummariesByDatesAndType(@Param("checkInDate") LocalDate checkInDate, @Param("checkOutDate") LocalDate checkOutDate, @Param("roomType") String roomType, Pageable pageable);
+
+    /**
+     * Finds the listing columns of the rooms whose type contains the given text and that have no sold night
+     * in the range. Results are kept in the query cache until a room or booking changes.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query(SELECT_SUMMARY + "WHERE r.roomType LIKE %:roomType% AND " + FREE_ON_EVERY_NIGHT + " ORDER BY r.id")
+    List<RoomSummaryView> findAvailableRoomSummaries(@Param("checkInDate") LocalDate checkInDate,
+                                                     @Param("checkOutDate") LocalDate checkOutDate,
+                                                     @Param("roomType") String roomType);
+
+    /**
+     * Finds the listing columns of one room.
+     * @param id the room ID
+     * @return the room summary, or an empty Optional if the room does not exist
+     */
+    @Query(SELECT_SUMMARY + "WHERE r.id = :id")
+    Optional<RoomSummaryView> findSummaryById(@Param("id") Long id);
+
+    /**
+     * Finds the listing columns of the given rooms.
+     * @param ids the room IDs
+     * @return the room summaries ordered by ID, kept in the query cache until a room changes
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query(SELECT_SUMMARY + "WHERE r.id IN :ids ORDER BY r.id")
+    List<RoomSummaryView> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds the listing columns of every room whose type contains the given text.
+     * @param roomType the text to match
+     * @return the room summaries ordered by ID
+     */
+    @Query(SELECT_SUMMARY + "WHERE r.roomType LIKE %:roomType% ORDER BY r.id")
+    List<RoomSummaryView> findSummariesByRoomTypeContaining(@Param("roomType") String roomType);
+
+    /**
+     * Keyset page over rooms ordered by ID; reads only the listing columns and never runs a count query.
+     * @param afterId only rooms with a greater ID are returned
+     * @param limit the maximum number of rooms
+     * @return the room summaries ordered by ID
+     */
+    @Query(SELECT_SUMMARY + "WHERE r.id > :afterId ORDER BY r.id")
+    List<RoomSummaryView> findSummariesAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Offset page over the listing columns of all rooms.
+     * @param pageable pagination and sorting
+     * @return the page of room summaries
+     */
+    @Query(value = SELECT_SUMMARY, countQuery = "SELECT COUNT(r) FROM Room r")
+    Page<RoomSummaryView> findSummaries(Pageable pageable);
+
+    /**
+     * Finds the listing columns of every room.
+     * @return the room summaries ordered by ID
+     */
+    @Query(SELECT_SUMMARY + "ORDER BY r.id")
+    List<RoomSummaryView> findAllSummaries();
+
+    /**
+     * Finds the id and type of every room.
+     * @return the room types
+     */
+    @Query("SELECT new com.sb.hotel.booking.repository.projection.RoomTypeView(r.id, r.roomType) FROM Room r")
+    List<RoomTypeView> findAllRoomTypes();
+
+    /**
+     * Loads a room and locks its row ({@code SELECT ... FOR UPDATE}) until the current transaction ends.
+     * Every booking write for a room takes this lock first, so overlapping bookings cannot be committed concurrently.
+     * @param id the room ID
+     * @return the locked room
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Room r WHERE r.id = :id")
+    Optional<Room> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Loads several rooms and locks their rows in ID order until the current transaction ends.
+     * @param ids the room IDs
+     * @return the locked rooms
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Room r WHERE r.id IN :ids ORDER BY r.id")
+    List<Room> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds the photo key of a room without loading the room.
+     * @param id the room ID
+     * @return the photo key, or an empty Optional if the room has no photo or does not exist
+     */
+    @Query("SELECT r.photoKey FROM Room r WHERE r.id = :id")
+    Optional<String> findPhotoKeyById(@Param("id") Long id);
 
 }
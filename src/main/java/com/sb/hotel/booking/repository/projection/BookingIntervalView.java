@@ -0,0 +1,20 @@
+package com.sb.hotel.booking.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Date range of a single booking, without the guest details or the room entity.
+ * Built by a JPQL constructor expression, so no entity is loaded or tracked by the persistence context.
+ */
+@Getter
+@AllArgsConstructor
+public class BookingIntervalView {
+
+    private final Long bookingId;
+    private final Long roomId;
+    private final LocalDate checkInDate;
+    private final LocalDate checkOutDate;
+}
@@ -0,0 +1,20 @@
+package com.sb.hotel.booking.repository.projection;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Booking interval plus the confirmation code, as listed under a room.
+ */
+@Getter
+public class BookingSummaryView extends BookingIntervalView {
+
+    private final String bookingConfirmationCode;
+
+    public BookingSummaryView(Long bookingId, Long roomId, LocalDate checkInDate, LocalDate checkOutDate,
+                              String bookingConfirmationCode) {
+        super(bookingId, roomId, checkInDate, checkOutDate);
+        this.bookingConfirmationCode = bookingConfirmationCode;
+    }
+}
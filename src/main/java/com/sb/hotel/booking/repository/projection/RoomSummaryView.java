@@ -0,0 +1,21 @@
+package com.sb.hotel.booking.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Room fields shown in listings, without the photo or the bookings.
+ * Built by a JPQL constructor expression, so no entity is loaded or tracked by the persistence context.
+ */
+@Getter
+@AllArgsConstructor
+public class RoomSummaryView {
+
+    private final Long id;
+    private final String roomType;
+    private final BigDecimal roomPrice;
+    private final boolean booked;
+    private final String photoKey;
+}
@@ -0,0 +1,15 @@
+package com.sb.hotel.booking.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Room id and type only, so the photo column is never read.
+ */
+@Getter
+@AllArgsConstructor
+public class RoomTypeView {
+
+    private final Long id;
+    private final String roomType;
+}
@@ -0,0 +1,60 @@
+package com.sb.hotel.booking.request;
+
+import com.sb.hotel.booking.models.BookedRoom;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * One room-stay of a batch booking request.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchBookingItem {
+
+    @NotNull(message = "Room ID cannot be null")
+    private Long roomId;
+
+    @NotNull(message = "Check-in date cannot be null")
+    private LocalDate checkInDate;
+
+    @NotNull(message = "Check-out date cannot be null")
+    private LocalDate checkOutDate;
+
+    @NotBlank(message = "Guest full name cannot be blank")
+    @Size(max = 100, message = "Guest full name must be at most 100 characters")
+    private String guestFullName;
+
+    @NotBlank(message = "Guest email cannot be blank")
+    @Pattern(regexp = "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$", message = "Invalid email format")
+    private String guestEmail;
+
+    @Min(value = 1, message = "There must be at least one adult")
+    private int numOfAdults;
+
+    @Min(value = 0, message = "Number of children cannot be negative")
+    private int numOfChildren;
+
+    @Min(value = 1, message = "There must be at least one guest")
+    private int totalNumOfGuest;
+
+    public BookedRoom toBookedRoom() {
+        BookedRoom booking = new BookedRoom();
+        booking.setCheckInDate(checkInDate);
+        booking.setCheckOutDate(checkOutDate);
+        booking.setGuestFullName(guestFullName);
+        booking.setGuestEmail(guestEmail);
+        booking.setNumOfAdults(numOfAdults);
+        booking.setNumOfChildren(numOfChildren);
+        booking.setTotalNumOfGuest(totalNumOfGuest);
+        return booking;
+    }
+}
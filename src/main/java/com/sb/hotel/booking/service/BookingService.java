@@ -1,6 +1,13 @@
 package com.sb.hotel.booking.service;
 
+import com.sb.hotel.booking.Response.CursorPage;
 import com.sb.hotel.booking.models.BookedRoom;
+import com.sb.hotel.booking.request.BatchBookingItem;
+import com.sb.hotel.booking.response.BookingResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.util.List;
 
 public interface BookingService {
@@ -14,17 +21,69 @@ public interface BookingService {
     String saveBooking(Long roomId, BookedRoom bookingRequest);
 
     /**
-     * Retrieves all bookings.
-     * @return a list of all bookings
+     * Saves a new booking for a specific room once per idempotency key. A request with a key that has already
+     * been booked returns that booking's confirmation code without booking again; requests with the same key
+     * that arrive while it is being booked wait for it and return its code too.
+     * @param roomId the ID of the room to book
+     * @param bookingRequest the booking details
+     * @param idempotencyKey the client's key for this request, or null to book without one
+     * @return a confirmation code for the booking
+     * @throws IllegalArgumentException if the key is malformed or was used for a different request
+     */
+    String saveBooking(Long roomId, BookedRoom bookingRequest, String idempotencyKey);
+
+    /**
+     * Books a block of room-stays all-or-nothing. Availability of the whole block is checked in one pass
+     * (against existing bookings and against the other stays of the block) and the bookings are inserted
+     * with JDBC batching. If any stay conflicts, nothing is booked.
+     * @param items the stays to book
+     * @return the confirmation codes, in the order of the items
+     * @throws com.sb.hotel.booking.exception.RoomNotAvailableException if any stay conflicts
+     */
+    List<String> saveBookings(List<BatchBookingItem> items);
+
+    /**
+     * Retrieves all bookings. Only the listed columns are read; no booking entity is loaded.
+     * @return a list of all bookings, ordered by ID
      */
-    List<BookedRoom> getAllBookings();
+    List<BookingResponse> getAllBookings();
+
+    /**
+     * Writes every booking to the stream as newline-delimited JSON, one object per line.
+     * Rows are read through a database cursor and detached once written, so memory use does not grow with the table.
+     * @param out the stream to write to; it is flushed but not closed
+     * @throws IOException if writing fails
+     */
+    void exportBookings(OutputStream out) throws IOException;
 
     /**
      * Retrieves all bookings for a specific room.
      * @param roomId the ID of the room
-     * @return a list of bookings for the specified room
+     * @return a list of bookings for the specified room, ordered by check-in date
+     */
+    List<BookingResponse> getAllBookingsByRoomId(Long roomId);
+
+    /**
+     * Retrieves bookings checking in within a date range, with keyset pagination over (checkInDate, bookingId).
+     * @param startDate the first check-in date to include
+     * @param endDate the last check-in date to include
+     * @param after the cursor returned with the previous page, or null for the first page
+     * @param size the page size, clamped to {@link CursorPage#MAX_SIZE}
+     * @return the page of bookings
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    CursorPage<BookingResponse> getBookingsByCheckInDate(LocalDate startDate, LocalDate endDate, String after, int size);
+
+    /**
+     * Retrieves a guest's bookings, with keyset pagination over (checkInDate, bookingId). The email is matched
+     * case-insensitively, and pages are cached per guest until one of the guest's bookings changes.
+     * @param guestEmail the guest's email
+     * @param after the cursor returned with the previous page, or null for the first page
+     * @param size the page size, clamped to {@link CursorPage#MAX_SIZE}
+     * @return the page of bookings
+     * @throws IllegalArgumentException if the email is blank or the cursor is malformed
      */
-    List<BookedRoom> getAllBookingsByRoomId(Long roomId);
+    CursorPage<BookingResponse> getBookingsByGuestEmail(String guestEmail, String after, int size);
 
     /**
      * Checks if the room is available for the given booking request.
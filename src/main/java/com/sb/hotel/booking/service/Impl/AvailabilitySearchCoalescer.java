@@ -0,0 +1,121 @@
+package com.sb.hotel.booking.service.Impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sb.hotel.booking.event.BookingChangedEvent;
+import com.sb.hotel.booking.event.RoomAddedEvent;
+import com.sb.hotel.booking.metrics.HotelMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for availability searches: concurrent requests for the same search share one run of it and
+ * its result, so a burst of identical searches costs one set of queries. With
+ * {@code search.coalescing.result-ttl} above zero, a result is also kept for that long (meant to be
+ * milliseconds) and answers identical searches that arrive just after it was computed.
+ * <p>
+ * Every committed booking or room change starts a new generation, and searches are only shared and cached
+ * within one generation. A search that starts after a change therefore never gets a result computed before
+ * it, just as if nothing was coalesced.
+ */
+@Component
+public class AvailabilitySearchCoalescer {
+
+    private final HotelMetrics metrics;
+    private final AtomicLong generation = new AtomicLong();
+    private final ConcurrentHashMap<Flight, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Cache<Flight, Object> results;
+
+    public AvailabilitySearchCoalescer(HotelMetrics metrics,
+                                       @Value("${search.coalescing.result-ttl:0ms}") Duration resultTtl,
+                                       @Value("${search.coalescing.result-max-size:10000}") long resultMaxSize) {
+        this.metrics = metrics;
+        this.results = resultTtl.isZero() ? null : Caffeine.newBuilder()
+                .maximumSize(resultMaxSize)
+                .expireAfterWrite(resultTtl)
+                .build();
+    }
+
+    /**
+     * Runs a search, or waits for an identical one that is already running and returns its result.
+     * @param search the kind of search, e.g. {@code list} or {@code page}; also its metric tag
+     * @param query the search parameters, compared with {@code equals}
+     * @param loader runs the search
+     * @return the result of the search; shared between callers, so it must not be modified
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String search, Object query, Supplier<T> loader) {
+        Flight flight = new Flight(generation.get(), search, query);
+        if (results != null) {
+            Object cached = results.getIfPresent(flight);
+            if (cached != null) {
+                metrics.searchRequest(search, HotelMetrics.CACHED);
+                return (T) cached;
+            }
+        }
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(flight, mine);
+        if (running != null) {
+            metrics.searchRequest(search, HotelMetrics.COALESCED);
+            return (T) join(running);
+        }
+        metrics.searchRequest(search, HotelMetrics.EXECUTED);
+        try {
+            T result = loader.get();
+            // Cached before the flight ends, so no identical search starts in between
+            if (results != null && result != null) {
+                results.put(flight, result);
+            }
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flight, mine);
+        }
+    }
+
+    private static Object join(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Stops sharing the searches and results computed so far with searches that start from now on. Called
+     * for local changes once they commit, and by {@code ClusterCacheSynchronizer} for other nodes' changes.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        if (results != null) {
+            results.invalidateAll();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        invalidate();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoomAdded(RoomAddedEvent event) {
+        invalidate();
+    }
+
+    private record Flight(long generation, String search, Object query) {
+    }
+}
@@ -1,108 +1,446 @@
 package com.sb.hotel.booking.service.Impl;
 
+import com.sb.hotel.booking.Response.CursorPage;
+import com.sb.hotel.booking.Response.CursorToken;
+import com.sb.hotel.booking.availability.OccupancyCalendar;
+import com.sb.hotel.booking.event.BookingChangedEvent;
+import com.sb.hotel.booking.exception.RoomNotAvailableException;
+import com.sb.hotel.booking.metrics.HotelMetrics;
 import com.sb.hotel.booking.models.BookedRoom;
 import com.sb.hotel.booking.models.Room;
 import com.sb.hotel.booking.repository.BookingRepository;
+import com.sb.hotel.booking.repository.RoomRepository;
+import com.sb.hotel.booking.repository.projection.BookingIntervalView;
+import com.sb.hotel.booking.request.BatchBookingItem;
+import com.sb.hotel.booking.response.BookingResponse;
 import com.sb.hotel.booking.service.BookingService;
-import com.sb.hotel.booking.service.RoomService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Observed(name = "hotel.service")
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
 
     private static final Logger logger = LoggerFactory.getLogger(BookingServiceImpl.class);
+    // How often updateBooking follows a booking that other updates keep moving to another room
+    private static final int UPDATE_ATTEMPTS = 3;
 
     private final BookingRepository bookingRepository;
-    private final RoomService roomService;
+    private final RoomRepository roomRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RoomLocks roomLocks;
+    private final ConfirmationCodeGenerator confirmationCodes;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final RoomInventory roomInventory;
+    private final GuestBookingCache guestBookingCache;
+    private final HotelMetrics metrics;
+    private final IdempotentBookings idempotentBookings;
 
     @Override
-    public List<BookedRoom> getAllBookings() {
-        return bookingRepository.findAll();
+    public List<BookingResponse> getAllBookings() {
+        return bookingRepository.findAllResponses();
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void exportBookings(OutputStream out) throws IOException {
+        long exported = 0;
+        try (Stream<BookedRoom> bookings = bookingRepository.streamAllOrderedById();
+             JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setPrettyPrinter(new MinimalPrettyPrinter(""));
+            Iterator<BookedRoom> iterator = bookings.iterator();
+            while (iterator.hasNext()) {
+                BookedRoom booking = iterator.next();
+                writeExportLine(json, booking);
+                entityManager.detach(booking);
+                if (++exported % 1000 == 0) {
+                    json.flush();
+                }
+            }
+        }
+        logger.info("Exported {} bookings", exported);
+    }
+
+    private void writeExportLine(JsonGenerator json, BookedRoom booking) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("bookingId", booking.getBookingId());
+        if (booking.getRoom() != null) {
+            json.writeNumberField("roomId", booking.getRoom().getId());
+        }
+        json.writeStringField("checkInDate", String.valueOf(booking.getCheckInDate()));
+        json.writeStringField("checkOutDate", String.valueOf(booking.getCheckOutDate()));
+        json.writeStringField("guestFullName", booking.getGuestFullName());
+        json.writeStringField("guestEmail", booking.getGuestEmail());
+        json.writeNumberField("numOfAdults", booking.getNumOfAdults());
+        json.writeNumberField("numOfChildren", booking.getNumOfChildren());
+        json.writeNumberField("totalNumOfGuest", booking.getTotalNumOfGuest());
+        json.writeStringField("bookingConfirmationCode", booking.getBookingConfirmationCode());
+        json.writeEndObject();
+        json.writeRaw('\n');
     }
 
     @Override
     public boolean cancelBooking(Long bookingId) {
+        return metrics.recordBooking("cancel", () -> cancel(bookingId));
+    }
+
+    private boolean cancel(Long bookingId) {
+        Optional<Long> roomId = bookingRepository.findRoomIdByBookingId(bookingId);
+        if (roomId.isEmpty()) {
+            logger.warn("Booking with ID {} does not exist.", bookingId);
+            return false;
+        }
         try {
-            if (bookingRepository.existsById(bookingId)) {
-                bookingRepository.deleteById(bookingId);
+            return roomLocks.withRoomLock(roomId.get(), () -> transactionTemplate.execute(status -> {
+                roomRepository.findByIdForUpdate(roomId.get());
+                Optional<BookedRoom> booking = bookingRepository.findById(bookingId);
+                if (booking.isEmpty()) {
+                    logger.warn("Booking with ID {} does not exist.", bookingId);
+                    return false;
+                }
+                bookingRepository.delete(booking.get());
+                roomInventory.release(booking.get());
+                eventPublisher.publishEvent(BookingChangedEvent.cancelled(booking.get()));
                 return true;
-            } else {
-                logger.warn("Booking with ID {} does not exist.", bookingId);
-                return false;
-            }
+            }));
         } catch (Exception e) {
             logger.error("Error occurred while canceling booking with ID {}: {}", bookingId, e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Books a room. Bookings for the same room are serialized by a striped in-process lock and by
+     * locking the room row for the duration of the transaction; bookings for other rooms run in parallel.
+     * Availability is read from the room's occupancy calendar, and the booked nights are sold in it and in
+     * the room day inventory in the same transaction.
+     */
     @Override
     public String saveBooking(Long roomId, BookedRoom bookingRequest) {
-        //validateBookingRequest(bookingRequest);
-        if (bookingRequest.getCheckOutDate().isBefore(bookingRequest.getCheckInDate())) {
-            throw new IllegalArgumentException("Check-out date must be after check-in date.");
+        return metrics.recordBooking("create", () -> book(roomId, bookingRequest, null, null));
+    }
+
+    /**
+     * Books a room as {@link #saveBooking(Long, BookedRoom)} does, once per key (see {@link IdempotentBookings}).
+     * The key is stored in the booking's transaction.
+     */
+    @Override
+    public String saveBooking(Long roomId, BookedRoom bookingRequest, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return saveBooking(roomId, bookingRequest);
         }
+        String fingerprint = IdempotentBookings.fingerprint(roomId, bookingRequest);
+        return idempotentBookings.execute(idempotencyKey, fingerprint, () -> metrics.recordBooking("create",
+                () -> book(roomId, bookingRequest, idempotencyKey, fingerprint)));
+    }
+
+    private String book(Long roomId, BookedRoom bookingRequest, String idempotencyKey, String fingerprint) {
+        validateBookingRequest(bookingRequest);
+        return roomLocks.withRoomLock(roomId, () -> transactionTemplate.execute(status -> {
+            Room room = roomRepository.findByIdForUpdate(roomId)
+                    .orElseThrow(() -> new RuntimeException("Room not found with ID: " + roomId));
+
+            if (idempotencyKey != null) {
+                Optional<String> stored = idempotentBookings.storedCode(idempotencyKey, fingerprint);
+                if (stored.isPresent()) {
+                    return stored.get();
+                }
+            }
+
+            if (!roomInventory.isAvailable(roomId, bookingRequest.getCheckInDate(), bookingRequest.getCheckOutDate(), null)) {
+                throw new RoomNotAvailableException("Room is not available for the selected dates.");
+            }
+
+            bookingRequest.setBookingConfirmationCode(confirmationCodes.next());
+            room.addBooking(bookingRequest);
+            bookingRepository.save(bookingRequest);
+            roomInventory.reserve(bookingRequest);
+            eventPublisher.publishEvent(BookingChangedEvent.created(bookingRequest));
+            if (idempotencyKey != null) {
+                idempotentBookings.store(idempotencyKey, fingerprint, bookingRequest.getBookingConfirmationCode());
+            }
+
+            return bookingRequest.getBookingConfirmationCode();
+        }));
+    }
+
+    @Override
+    public List<String> saveBookings(List<BatchBookingItem> items) {
+        return metrics.recordBooking("batch", () -> bookAll(items));
+    }
+
+    private List<String> bookAll(List<BatchBookingItem> items) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        List<BookedRoom> bookings = new ArrayList<>(items.size());
+        for (BatchBookingItem item : items) {
+            BookedRoom booking = item.toBookedRoom();
+            validateBookingRequest(booking);
+            bookings.add(booking);
+        }
+        Set<Long> roomIds = items.stream().map(BatchBookingItem::getRoomId).collect(Collectors.toCollection(TreeSet::new));
+
+        return roomLocks.withRoomLocks(roomIds, () -> transactionTemplate.execute(status -> {
+            Map<Long, Room> rooms = roomRepository.findAllByIdForUpdate(roomIds).stream()
+                    .collect(Collectors.toMap(Room::getId, Function.identity()));
+            for (Long roomId : roomIds) {
+                if (!rooms.containsKey(roomId)) {
+                    throw new RuntimeException("Room not found with ID: " + roomId);
+                }
+            }
+            checkBatchAvailability(roomIds, items, bookings);
+
+            for (int i = 0; i < items.size(); i++) {
+                BookedRoom booking = bookings.get(i);
+                booking.setBookingConfirmationCode(confirmationCodes.next());
+                rooms.get(items.get(i).getRoomId()).addBooking(booking);
+            }
+            bookingRepository.saveAll(bookings);
+            bookings.forEach(roomInventory::reserve);
+            bookings.forEach(booking -> eventPublisher.publishEvent(BookingChangedEvent.created(booking)));
+            logger.info("Booked {} stays in {} rooms", bookings.size(), roomIds.size());
+
+            return bookings.stream().map(BookedRoom::getBookingConfirmationCode).toList();
+        }));
+    }
 
-        Room room = roomService.getRoomById(roomId)
-                .orElseThrow(() -> new RuntimeException("Room not found with ID: " + roomId));
-        List<BookedRoom> existingBookings = room.getBookings();
+    /**
+     * Checks a whole block of stays against the occupancy calendars of its rooms. Each accepted stay is marked
+     * in a working copy of its room's calendar, so stays of the same block cannot overlap each other either.
+     * Blocks with a stay outside the calendar window are swept against the rooms' bookings instead.
+     */
+    private void checkBatchAvailability(Set<Long> roomIds, List<BatchBookingItem> items, List<BookedRoom> bookings) {
+        Map<Long, OccupancyCalendar> calendars = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            Long roomId = items.get(i).getRoomId();
+            BookedRoom booking = bookings.get(i);
+            OccupancyCalendar calendar = calendars.computeIfAbsent(roomId, roomInventory::calendar);
+            long from = booking.getCheckInDate().toEpochDay();
+            long to = booking.getCheckOutDate().toEpochDay();
+            if (!calendar.covers(from, to)) {
+                sweepBatchAvailability(roomIds, items, bookings);
+                return;
+            }
+            if (!calendar.isFree(from, to)) {
+                throw new RoomNotAvailableException("Room " + roomId + " is not available from "
+                        + booking.getCheckInDate() + " to " + booking.getCheckOutDate() + ".");
+            }
+            calendar.occupy(from, to);
+        }
+    }
 
-        if (!isRoomAvailable(bookingRequest, existingBookings)) {
-            throw new RuntimeException("Room is not available for the selected dates.");
+    /**
+     * Checks a whole block of stays with one query: loads the existing bookings of all its rooms within the
+     * block's date window, then sweeps each room's existing and requested stays in check-in order.
+     */
+    private void sweepBatchAvailability(Set<Long> roomIds, List<BatchBookingItem> items, List<BookedRoom> bookings) {
+        LocalDate windowStart = bookings.stream().map(BookedRoom::getCheckInDate).min(LocalDate::compareTo).orElseThrow();
+        LocalDate windowEnd = bookings.stream().map(BookedRoom::getCheckOutDate).max(LocalDate::compareTo).orElseThrow();
+        Map<Long, List<StayToCheck>> staysByRoom = new HashMap<>();
+        for (BookingIntervalView existing : bookingRepository.findIntervalsOverlapping(roomIds, windowStart, windowEnd)) {
+            staysByRoom.computeIfAbsent(existing.getRoomId(), id -> new ArrayList<>())
+                    .add(new StayToCheck(existing.getCheckInDate(), existing.getCheckOutDate(), false));
+        }
+        for (int i = 0; i < items.size(); i++) {
+            BookedRoom booking = bookings.get(i);
+            staysByRoom.computeIfAbsent(items.get(i).getRoomId(), id -> new ArrayList<>())
+                    .add(new StayToCheck(booking.getCheckInDate(), booking.getCheckOutDate(), true));
         }
 
-        room.addBooking(bookingRequest);
-        bookingRepository.save(bookingRequest);
+        staysByRoom.forEach((roomId, stays) -> {
+            stays.sort(Comparator.comparing(StayToCheck::checkInDate));
+            LocalDate existingEnd = LocalDate.MIN;
+            LocalDate requestedEnd = LocalDate.MIN;
+            for (StayToCheck stay : stays) {
+                boolean conflict = stay.requested()
+                        ? stay.checkInDate().isBefore(existingEnd) || stay.checkInDate().isBefore(requestedEnd)
+                        : stay.checkInDate().isBefore(requestedEnd);
+                if (conflict) {
+                    throw new RoomNotAvailableException("Room " + roomId + " is not available from "
+                            + stay.checkInDate() + " to " + stay.checkOutDate() + ".");
+                }
+                if (stay.requested()) {
+                    requestedEnd = max(requestedEnd, stay.checkOutDate());
+                } else {
+                    existingEnd = max(existingEnd, stay.checkOutDate());
+                }
+            }
+        });
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
 
-        return bookingRequest.getBookingConfirmationCode();
+    private record StayToCheck(LocalDate checkInDate, LocalDate checkOutDate, boolean requested) {
     }
 
     @Override
-    public List<BookedRoom> getAllBookingsByRoomId(Long roomId) {
-        return bookingRepository.findByRoomId(roomId);
+    public List<BookingResponse> getAllBookingsByRoomId(Long roomId) {
+        return bookingRepository.findResponsesByRoomId(roomId);
     }
 
     @Override
-    public boolean updateBooking(Long bookingId, BookedRoom updatedBooking) {
-        // Step 1: Retrieve the existing booking
-        Optional<BookedRoom> existingBookingOpt = bookingRepository.findById(bookingId);
+    public CursorPage<BookingResponse> getBookingsByCheckInDate(LocalDate startDate, LocalDate endDate, String after, int size) {
+        int pageSize = CursorPage.boundedSize(size);
+        BookingCursor cursor = BookingCursor.decode(after, startDate.minusDays(1));
+        List<BookingResponse> bookings = bookingRepository.findByCheckInDateBetweenAfter(startDate, endDate,
+                cursor.checkInDate(), cursor.bookingId(), Limit.of(pageSize + 1));
+        return CursorPage.of(bookings, pageSize, BookingCursor::encode);
+    }
 
-        if (existingBookingOpt.isEmpty()) {
-            logger.warn("Booking with ID {} not found.", bookingId);
-            return false;
+    @Override
+    public CursorPage<BookingResponse> getBookingsByGuestEmail(String guestEmail, String after, int size) {
+        if (guestEmail == null || guestEmail.isBlank()) {
+            throw new IllegalArgumentException("Guest email is required.");
         }
+        String email = GuestBookingCache.normalize(guestEmail);
+        int pageSize = CursorPage.boundedSize(size);
+        BookingCursor cursor = BookingCursor.decode(after, LocalDate.EPOCH);
+        return guestBookingCache.get(email, after, pageSize, () -> {
+            List<BookingResponse> bookings = bookingRepository.findByGuestEmailAfter(email,
+                    cursor.checkInDate(), cursor.bookingId(), Limit.of(pageSize + 1));
+            return CursorPage.of(bookings, pageSize, BookingCursor::encode);
+        });
+    }
 
-        BookedRoom existingBooking = existingBookingOpt.get();
-        updateBookingDetails(existingBooking, updatedBooking);
+    /**
+     * Keyset position over (checkInDate, bookingId).
+     */
+    private record BookingCursor(LocalDate checkInDate, Long bookingId) {
+
+        static BookingCursor decode(String after, LocalDate before) {
+            if (after == null) {
+                return new BookingCursor(before, Long.MIN_VALUE);
+            }
+            String[] parts = CursorToken.decode(after, 2);
+            try {
+                return new BookingCursor(LocalDate.parse(parts[0]), Long.parseLong(parts[1]));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + after, e);
+            }
+        }
 
-        // Optional: If updating the room, make sure to validate availability again
-        if (updatedBooking.getRoom() != null) {
-            Room room = updatedBooking.getRoom();
-            List<BookedRoom> existingBookings = room.getBookings();
+        static String encode(BookingResponse booking) {
+            return CursorToken.encode(booking.getCheckInDate(), booking.getId());
+        }
+    }
 
-            if (!roomIsAvailable(updatedBooking, existingBookings)) {
-                throw new RuntimeException("The updated booking conflicts with existing bookings.");
+    /**
+     * Updates a booking, moving it to another room if the update names one. The booking's current room and its
+     * target room are both locked, so no other write to either room can interleave. If another update moved the
+     * booking out of its current room before the locks were taken, the rooms are looked up and locked again.
+     */
+    @Override
+    public boolean updateBooking(Long bookingId, BookedRoom updatedBooking) {
+        return metrics.recordBooking("update", () -> update(bookingId, updatedBooking));
+    }
+
+    private boolean update(Long bookingId, BookedRoom updatedBooking) {
+        validateBookingRequest(updatedBooking);
+        for (int attempt = 1; attempt <= UPDATE_ATTEMPTS; attempt++) {
+            // Find the room the booking is in now, and the room it should move to (if any)
+            Optional<Long> currentRoomId = bookingRepository.findRoomIdByBookingId(bookingId);
+            if (currentRoomId.isEmpty()) {
+                logger.warn("Booking with ID {} not found.", bookingId);
+                return false;
             }
+            Long targetRoomId = updatedBooking.getRoom() != null && updatedBooking.getRoom().getId() != null
+                    ? updatedBooking.getRoom().getId() : currentRoomId.get();
 
-            existingBooking.setRoom(room);
+            Boolean updated;
+            try {
+                updated = updateInLockedRooms(bookingId, currentRoomId.get(), targetRoomId, updatedBooking);
+            } catch (RoomNotAvailableException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.error("Error occurred while updating booking with ID {}: {}", bookingId, e.getMessage());
+                // Handle any exceptions that may occur during saving
+                return false;
+            }
+            if (updated != null) {
+                return updated;
+            }
+            logger.info("Booking with ID {} left room {} before it was locked; retrying.", bookingId, currentRoomId.get());
         }
-        // Step 3: Save the updated booking
-        try {
+        logger.warn("Booking with ID {} kept moving between rooms; gave up after {} attempts.", bookingId, UPDATE_ATTEMPTS);
+        return false;
+    }
+
+    /**
+     * Locks the booking's current room and its target room in ID order, as saveBookings does, then re-checks
+     * availability and saves in one transaction.
+     * @return whether the booking was updated, or null if it was no longer in currentRoomId once locked
+     */
+    private Boolean updateInLockedRooms(Long bookingId, Long currentRoomId, Long targetRoomId, BookedRoom updatedBooking) {
+        Set<Long> roomIds = new TreeSet<>(List.of(currentRoomId, targetRoomId));
+        return roomLocks.withRoomLocks(roomIds, () -> transactionTemplate.execute(status -> {
+            Map<Long, Room> rooms = roomRepository.findAllByIdForUpdate(roomIds).stream()
+                    .collect(Collectors.toMap(Room::getId, Function.identity()));
+            Room targetRoom = rooms.get(targetRoomId);
+            if (targetRoom == null) {
+                throw new RuntimeException("Room not found with ID: " + targetRoomId);
+            }
+            // Read again under the locks: a concurrent update may have moved the booking to a room we do not hold
+            Optional<Long> lockedRoomId = bookingRepository.findRoomIdByBookingId(bookingId);
+            if (lockedRoomId.isEmpty()) {
+                logger.warn("Booking with ID {} not found.", bookingId);
+                return false;
+            }
+            if (!lockedRoomId.get().equals(currentRoomId)) {
+                return null;
+            }
+            BookedRoom existingBooking = bookingRepository.findById(bookingId)
+                    .orElseThrow(() -> new RuntimeException("Booking not found with ID: " + bookingId));
+            String previousGuestEmail = existingBooking.getGuestEmail();
+
+            // Free the booking's current nights first, so it never conflicts with itself
+            roomInventory.release(existingBooking);
+            if (!roomInventory.isAvailable(targetRoomId, updatedBooking.getCheckInDate(),
+                    updatedBooking.getCheckOutDate(), bookingId)) {
+                throw new RoomNotAvailableException("The updated booking conflicts with existing bookings.");
+            }
+
+            updateBookingDetails(existingBooking, updatedBooking);
+            existingBooking.setRoom(targetRoom);
             bookingRepository.save(existingBooking);
+            roomInventory.reserve(existingBooking);
+            eventPublisher.publishEvent(BookingChangedEvent.updated(existingBooking, previousGuestEmail));
             return true;
-        } catch (Exception e) {
-            logger.error("Error occurred while updating booking with ID {}: {}", bookingId, e.getMessage());
-            // Handle any exceptions that may occur during saving
-            return false;
-        }
+        }));
     }
 
     private void validateBookingRequest(BookedRoom bookingRequest) {
@@ -112,7 +450,6 @@ public class BookingServiceImpl implements BookingService {
     }
 
     private void updateBookingDetails(BookedRoom existingBooking, BookedRoom updatedBooking) {
-        // Step 2: Update the booking details
         existingBooking.setCheckInDate(updatedBooking.getCheckInDate());
         existingBooking.setCheckOutDate(updatedBooking.getCheckOutDate());
         existingBooking.setGuestFullName(updatedBooking.getGuestFullName());
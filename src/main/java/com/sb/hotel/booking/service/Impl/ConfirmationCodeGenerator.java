@@ -0,0 +1,109 @@
+package com.sb.hotel.booking.service.Impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates booking confirmation codes that are unique across nodes without a database round trip.
+ * <p>
+ * Each code packs a 63-bit ID, Snowflake style: 41 bits of milliseconds since 2024-01-01, a 10-bit node ID
+ * ({@code booking.node-id}, required and unique per running instance) and a 12-bit sequence within the millisecond. The
+ * ID is written as 13 Crockford base32 characters followed by a Luhn mod 32 check character, e.g.
+ * {@code 01GXHN00004001}.
+ * <p>
+ * Time and sequence share one {@link AtomicLong} that only moves forward, so codes are never repeated on a
+ * node, even when more than 4096 are taken in one millisecond or the clock steps back; in both cases the
+ * generator borrows from the following milliseconds until the clock catches up.
+ */
+@Component
+public class ConfirmationCodeGenerator {
+
+    static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final int ID_LENGTH = 13;
+    static final int CODE_LENGTH = ID_LENGTH + 1;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final long nodeId;
+    private final LongSupplier clock;
+
+    /**
+     * Time since {@link #EPOCH_MILLIS} shifted left by {@link #SEQUENCE_BITS}, plus the sequence.
+     */
+    private final AtomicLong lastTimeAndSequence = new AtomicLong();
+
+    @Autowired
+    public ConfirmationCodeGenerator(@Value("${booking.node-id}") long nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    ConfirmationCodeGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("booking.node-id must be between 0 and " + MAX_NODE_ID + ", was " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns a new confirmation code.
+     * @return a 14-character code
+     */
+    public String next() {
+        long timeAndSequence = nextTimeAndSequence();
+        long time = timeAndSequence >>> SEQUENCE_BITS;
+        long id = (time << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | (timeAndSequence & SEQUENCE_MASK);
+        return encode(id);
+    }
+
+    private long nextTimeAndSequence() {
+        while (true) {
+            long last = lastTimeAndSequence.get();
+            long now = (clock.getAsLong() - EPOCH_MILLIS) << SEQUENCE_BITS;
+            long next = now > last ? now : last + 1;
+            if (lastTimeAndSequence.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+
+    static String encode(long id) {
+        int[] values = new int[ID_LENGTH];
+        for (int i = ID_LENGTH - 1; i >= 0; i--) {
+            values[i] = (int) (id & 31);
+            id >>>= 5;
+        }
+        int check = (ALPHABET.length - luhnSum(values) % ALPHABET.length) % ALPHABET.length;
+
+        char[] code = new char[CODE_LENGTH];
+        for (int i = 0; i < ID_LENGTH; i++) {
+            code[i] = ALPHABET[values[i]];
+        }
+        code[ID_LENGTH] = ALPHABET[check];
+        return new String(code);
+    }
+
+    /**
+     * Luhn mod N sum, doubling every other value starting from the rightmost one.
+     */
+    private static int luhnSum(int[] values) {
+        int sum = 0;
+        int factor = 2;
+        for (int i = values.length - 1; i >= 0; i--) {
+            int addend = factor * values[i];
+            sum += addend / ALPHABET.length + addend % ALPHABET.length;
+            factor = factor == 2 ? 1 : 2;
+        }
+        return sum;
+    }
+}
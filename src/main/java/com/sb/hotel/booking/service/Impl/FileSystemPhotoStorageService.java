@@ -0,0 +1,130 @@
+package com.sb.hotel.booking.service.Impl;
+
+import com.sb.hotel.booking.service.PhotoStorageService;
+import com.sb.hotel.booking.service.PhotoVariant;
+import io.micrometer.observation.annotation.Observed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Stores photos on the local filesystem under {@code file.upload-dir}, named by the SHA-256 of their content.
+ * Keys look like {@code <sha256>.<extension>} and files live in {@code photos/<first two hex chars>/<key>}.
+ * Variants of a photo live in {@code photos/variants/<key>/<variant>.jpg}.
+ */
+@Service
+@Observed(name = "hotel.service")
+@Slf4j
+public class FileSystemPhotoStorageService implements PhotoStorageService {
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}\\.[a-z0-9]+");
+
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", "jpg",
+            "image/png", "png",
+            "image/gif", "gif",
+            "image/webp", "webp");
+
+    private final Path photoDir;
+
+    public FileSystemPhotoStorageService(@Value("${file.upload-dir}") String uploadDir) {
+        this.photoDir = Paths.get(uploadDir).toAbsolutePath().normalize().resolve("photos");
+    }
+
+    @Override
+    public String store(InputStream content, String contentType) throws IOException {
+        Files.createDirectories(photoDir);
+        Path tempFile = Files.createTempFile(photoDir, "upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            Files.copy(new DigestInputStream(content, digest), tempFile, StandardCopyOption.REPLACE_EXISTING);
+            String key = HexFormat.of().formatHex(digest.digest()) + "." + EXTENSIONS.getOrDefault(contentType, "bin");
+
+            Path target = resolve(key);
+            if (Files.exists(target)) {
+                log.debug("Photo {} is already stored", key);
+                return key;
+            }
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                log.debug("Photo {} was stored concurrently", key);
+            }
+            return key;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Override
+    public Optional<Resource> load(String key) {
+        if (!isValidKey(key)) {
+            return Optional.empty();
+        }
+        Path file = resolve(key);
+        return Files.isRegularFile(file) ? Optional.of(new FileSystemResource(file)) : Optional.empty();
+    }
+
+    @Override
+    public void storeVariant(String key, PhotoVariant variant, InputStream content) throws IOException {
+        if (!isValidKey(key)) {
+            throw new IllegalArgumentException("Invalid photo key: " + key);
+        }
+        Path target = resolveVariant(key, variant);
+        Files.createDirectories(target.getParent());
+        Path tempFile = Files.createTempFile(target.getParent(), variant.pathName() + "-", ".tmp");
+        try {
+            Files.copy(content, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Override
+    public Optional<Resource> loadVariant(String key, PhotoVariant variant) {
+        if (!isValidKey(key)) {
+            return Optional.empty();
+        }
+        Path file = resolveVariant(key, variant);
+        return Files.isRegularFile(file) ? Optional.of(new FileSystemResource(file)) : Optional.empty();
+    }
+
+    private static boolean isValidKey(String key) {
+        return key != null && KEY_PATTERN.matcher(key).matches();
+    }
+
+    private Path resolveVariant(String key, PhotoVariant variant) {
+        return photoDir.resolve("variants").resolve(key).resolve(variant.pathName() + ".jpg");
+    }
+
+    private Path resolve(String key) {
+        return photoDir.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
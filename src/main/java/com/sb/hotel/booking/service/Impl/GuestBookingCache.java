@@ -0,0 +1,82 @@
+package com.sb.hotel.booking.service.Impl;
+
+import com.sb.hotel.booking.Response.CursorPage;
+import com.sb.hotel.booking.config.CacheConfig;
+import com.sb.hotel.booking.event.BookingChangedEvent;
+import com.sb.hotel.booking.response.BookingResponse;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Caches guest booking history pages, one cache entry per guest holding all of that guest's cached pages,
+ * so a change to any of a guest's bookings drops every page of that guest and nobody else's.
+ * <p>
+ * Pages are loaded into the guest's page map, not by the cache itself. An eviction replaces the map, so a
+ * read that started before the change committed can only store its result in the map that was dropped.
+ */
+@Component
+public class GuestBookingCache {
+
+    /**
+     * Pages cached per guest; further pages of that guest (deep or with unusual sizes) are read through.
+     */
+    static final int MAX_PAGES_PER_GUEST = 16;
+
+    private final Cache cache;
+
+    public GuestBookingCache(CacheManager cacheManager) {
+        this.cache = Objects.requireNonNull(cacheManager.getCache(CacheConfig.GUEST_BOOKINGS));
+    }
+
+    /**
+     * The form in which guest emails are compared and cached.
+     * @param guestEmail the email as entered
+     * @return the trimmed, lower-case email
+     */
+    public static String normalize(String guestEmail) {
+        return guestEmail.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns a cached page of a guest's bookings, loading it on a miss.
+     * @param guestEmail the normalized guest email
+     * @param after the page cursor, or null for the first page
+     * @param size the page size
+     * @param loader reads the page from the database
+     * @return the page
+     */
+    public CursorPage<BookingResponse> get(String guestEmail, String after, int size,
+                                           Supplier<CursorPage<BookingResponse>> loader) {
+        Map<String, CursorPage<BookingResponse>> pages = cache.get(guestEmail, ConcurrentHashMap::new);
+        String pageKey = after + "/" + size;
+        CursorPage<BookingResponse> page = pages.get(pageKey);
+        if (page != null) {
+            return page;
+        }
+        page = loader.get();
+        if (pages.size() < MAX_PAGES_PER_GUEST) {
+            pages.putIfAbsent(pageKey, page);
+        }
+        return page;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        evict(event.getGuestEmail());
+        evict(event.getPreviousGuestEmail());
+    }
+
+    public void evict(String guestEmail) {
+        if (guestEmail != null) {
+            cache.evict(normalize(guestEmail));
+        }
+    }
+}
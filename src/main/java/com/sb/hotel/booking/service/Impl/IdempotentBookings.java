@@ -0,0 +1,182 @@
+package com.sb.hotel.booking.service.Impl;
+
+import com.sb.hotel.booking.config.CacheConfig;
+import com.sb.hotel.booking.models.BookedRoom;
+import com.sb.hotel.booking.models.IdempotencyKey;
+import com.sb.hotel.booking.repository.IdempotencyKeyRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Runs each booking request sent with an {@code Idempotency-Key} at most once, and answers retries with the
+ * confirmation code of the first run.
+ * <p>
+ * Recent keys are held in a bounded, expiring cache of futures: the first request with a key runs the booking,
+ * and duplicates arriving while it runs wait for its outcome instead of booking again. Only successful outcomes
+ * stay cached; after a failure the key is dropped, so a retry runs afresh. Keys are also stored in the
+ * {@code idempotency_key} table with their booking, which answers retries after the cache has let go of a key,
+ * after a restart or on another node.
+ */
+@Slf4j
+@Component
+public class IdempotentBookings {
+
+    private final Cache cache;
+    private final IdempotencyKeyRepository repository;
+    private final EntityManager entityManager;
+    private final Duration retention;
+
+    public IdempotentBookings(CacheManager cacheManager, IdempotencyKeyRepository repository, EntityManager entityManager,
+                              @Value("${idempotency.retention:24h}") Duration retention) {
+        this.cache = Objects.requireNonNull(cacheManager.getCache(CacheConfig.IDEMPOTENCY_KEYS));
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.retention = retention;
+    }
+
+    /**
+     * A hash of everything a booking request asks for, to tell a retry from a different request sent with
+     * the same key.
+     * @param roomId the ID of the room to book
+     * @param request the booking details, before the booking assigns anything to them
+     * @return the hex-encoded SHA-256 of the request
+     */
+    public static String fingerprint(Long roomId, BookedRoom request) {
+        String canonical = String.join("\n", String.valueOf(roomId),
+                String.valueOf(request.getCheckInDate()), String.valueOf(request.getCheckOutDate()),
+                String.valueOf(request.getGuestFullName()), String.valueOf(request.getGuestEmail()),
+                String.valueOf(request.getNumOfAdults()), String.valueOf(request.getNumOfChildren()),
+                String.valueOf(request.getTotalNumOfGuest()));
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Runs a booking unless its key has been seen, collapsing concurrent requests with the same key into one run.
+     * @param key the client's idempotency key
+     * @param fingerprint the {@link #fingerprint} of the request
+     * @param booking books the room, storing the key with {@link #store} in the booking's transaction
+     * @return the confirmation code of the booking made for the key
+     * @throws IllegalArgumentException if the key is blank, too long or was used for a different request
+     */
+    @SuppressWarnings("unchecked")
+    public String execute(String key, String fingerprint, Supplier<String> booking) {
+        if (key.isBlank() || key.length() > IdempotencyKey.MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be between 1 and "
+                    + IdempotencyKey.MAX_KEY_LENGTH + " characters.");
+        }
+        CompletableFuture<Outcome> mine = new CompletableFuture<>();
+        Cache.ValueWrapper running = cache.putIfAbsent(key, mine);
+        if (running != null) {
+            return join((CompletableFuture<Outcome>) running.get()).codeFor(key, fingerprint);
+        }
+        Outcome outcome;
+        try {
+            outcome = run(key, fingerprint, booking);
+        } catch (RuntimeException e) {
+            // Dropped before the waiters are woken, so none of them can find the failure again
+            cache.evict(key);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        mine.complete(outcome);
+        return outcome.codeFor(key, fingerprint);
+    }
+
+    private Outcome run(String key, String fingerprint, Supplier<String> booking) {
+        Optional<Outcome> stored = repository.findById(key).map(Outcome::of);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+        try {
+            return new Outcome(fingerprint, booking.get());
+        } catch (DataIntegrityViolationException e) {
+            // Another node stored the key between the check above and this booking's commit
+            return repository.findById(key).map(Outcome::of).orElseThrow(() -> e);
+        }
+    }
+
+    private static Outcome join(CompletableFuture<Outcome> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Looks a key up within a booking transaction, after the room lock is taken. This catches a duplicate
+     * that another node booked while this request waited for the lock.
+     * @param key the client's idempotency key
+     * @param fingerprint the {@link #fingerprint} of the request
+     * @return the confirmation code stored for the key, if any
+     * @throws IllegalArgumentException if the key was used for a different request
+     */
+    public Optional<String> storedCode(String key, String fingerprint) {
+        return repository.findById(key).map(stored -> Outcome.of(stored).codeFor(key, fingerprint));
+    }
+
+    /**
+     * Stores a key with its booking; must be called in the booking's transaction.
+     * @param key the client's idempotency key
+     * @param fingerprint the {@link #fingerprint} of the request
+     * @param confirmationCode the confirmation code of the booking
+     */
+    public void store(String key, String fingerprint, String confirmationCode) {
+        // persist rather than save: the ID is assigned, and save would select it again before inserting
+        entityManager.persist(new IdempotencyKey(key, fingerprint, confirmationCode, Instant.now()));
+    }
+
+    /**
+     * Deletes the stored keys older than {@code idempotency.retention}; retries after that are booked afresh.
+     * @return the number of keys deleted
+     */
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}",
+            initialDelayString = "${idempotency.purge-interval-ms:3600000}")
+    public int purge() {
+        int purged = repository.deleteCreatedBefore(Instant.now().minus(retention));
+        if (purged > 0) {
+            log.debug("Purged {} idempotency keys older than {}", purged, retention);
+        }
+        return purged;
+    }
+
+    private record Outcome(String fingerprint, String confirmationCode) {
+
+        static Outcome of(IdempotencyKey stored) {
+            return new Outcome(stored.getRequestFingerprint(), stored.getConfirmationCode());
+        }
+
+        String codeFor(String key, String requestFingerprint) {
+            if (!fingerprint.equals(requestFingerprint)) {
+                throw new IllegalArgumentException("Idempotency key " + key + " was already used for a different booking request.");
+            }
+            return confirmationCode;
+        }
+    }
+}
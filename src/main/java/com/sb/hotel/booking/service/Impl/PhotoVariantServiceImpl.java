@@ -0,0 +1,88 @@
+package com.sb.hotel.booking.service.Impl;
+
+import com.sb.hotel.booking.service.PhotoStorageService;
+import com.sb.hotel.booking.service.PhotoVariant;
+import com.sb.hotel.booking.service.PhotoVariantService;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+@Service
+@Observed(name = "hotel.service")
+@RequiredArgsConstructor
+@Slf4j
+public class PhotoVariantServiceImpl implements PhotoVariantService {
+
+    private final PhotoStorageService photoStorageService;
+
+    @Async("photoVariantExecutor")
+    @Override
+    public void generateVariants(String photoKey) {
+        Optional<Resource> original = photoStorageService.load(photoKey);
+        if (original.isEmpty()) {
+            log.warn("Cannot generate variants, photo {} does not exist", photoKey);
+            return;
+        }
+
+        try {
+            BufferedImage image;
+            try (InputStream in = original.get().getInputStream()) {
+                image = ImageIO.read(in);
+            }
+            if (image == null) {
+                log.warn("Cannot generate variants, photo {} is not a readable image", photoKey);
+                return;
+            }
+            for (PhotoVariant variant : PhotoVariant.values()) {
+                byte[] encoded = encodeJpeg(resize(image, variant.getMaxDimension()));
+                photoStorageService.storeVariant(photoKey, variant, new ByteArrayInputStream(encoded));
+            }
+            log.info("Generated photo variants for {}", photoKey);
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not generate variants for photo {}", photoKey, e);
+        }
+    }
+
+    /**
+     * Scales the image down so its longest edge fits, keeping the aspect ratio. Images are never scaled up.
+     * Always returns an RGB image, since JPEG has no alpha channel.
+     */
+    private BufferedImage resize(BufferedImage image, int maxDimension) {
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (!ImageIO.write(image, "jpg", out)) {
+            throw new IOException("No JPEG writer available");
+        }
+        return out.toByteArray();
+    }
+}
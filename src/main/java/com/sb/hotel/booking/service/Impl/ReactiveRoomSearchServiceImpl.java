@@ -0,0 +1,80 @@
+package com.sb.hotel.booking.service.Impl;
+
+import com.sb.hotel.booking.Response.RoomResponse;
+import com.sb.hotel.booking.availability.RoomAvailabilityIndex;
+import com.sb.hotel.booking.metrics.HotelMetrics;
+import com.sb.hotel.booking.service.ReactiveRoomSearchService;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Non-blocking availability search over R2DBC. When the {@link RoomAvailabilityIndex} can answer, only the
+ * listing columns of the free rooms are read, in chunks so the first rooms go out before the last are read;
+ * otherwise the whole search runs as one streamed SQL query.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReactiveRoomSearchServiceImpl implements ReactiveRoomSearchService {
+
+    private static final int CHUNK_SIZE = 100;
+
+    private static final String SUMMARY_COLUMNS = "SELECT r.id, r.room_type, r.room_price, r.is_booked, r.photo_key FROM room r ";
+
+    private final DatabaseClient databaseClient;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final HotelMetrics metrics;
+
+    @Override
+    public Flux<RoomResponse> findAvailableRooms(LocalDate checkInDate, LocalDate checkOutDate, String roomType) {
+        log.debug("Streaming available rooms of type: {} between dates: {} and {}", roomType, checkInDate, checkOutDate);
+        // Timed from subscription until the last room is sent
+        return Flux.defer(() -> {
+            Timer.Sample sample = metrics.startSearch();
+            Optional<List<Long>> ids = availabilityIndex.findAvailableRoomIds(checkInDate, checkOutDate, roomType);
+            String source = ids.isPresent() ? "index" : "sql";
+            return ids.map(this::findRooms)
+                    .orElseGet(() -> searchRooms(checkInDate, checkOutDate, roomType))
+                    .doFinally(signal -> metrics.stopSearch(sample, "stream", roomType, source));
+        });
+    }
+
+    private Flux<RoomResponse> findRooms(List<Long> ids) {
+        return Flux.fromIterable(ids)
+                .buffer(CHUNK_SIZE)
+                .concatMap(chunk -> databaseClient.sql(SUMMARY_COLUMNS + "WHERE r.id IN (:ids) ORDER BY r.id")
+                        .bind("ids", chunk)
+                        .map(ReactiveRoomSearchServiceImpl::toRoomResponse)
+                        .all());
+    }
+
+    private Flux<RoomResponse> searchRooms(LocalDate checkInDate, LocalDate checkOutDate, String roomType) {
+        return databaseClient.sql(SUMMARY_COLUMNS
+                        + "WHERE r.room_type LIKE :roomType "
+                        + "AND NOT EXISTS (SELECT 1 FROM room_day_inventory d WHERE d.room_id = r.id "
+                        + "AND d.stay_date >= :checkInDate AND d.stay_date < :checkOutDate) "
+                        + "ORDER BY r.id")
+                .bind("roomType", "%" + roomType + "%")
+                .bind("checkInDate", checkInDate)
+                .bind("checkOutDate", checkOutDate)
+                .map(ReactiveRoomSearchServiceImpl::toRoomResponse)
+                .all();
+    }
+
+    private static RoomResponse toRoomResponse(Readable row) {
+        Long id = row.get("id", Long.class);
+        Boolean booked = row.get("is_booked", Boolean.class);
+        return new RoomResponse(id, row.get("room_type", String.class), row.get("room_price", BigDecimal.class),
+                Boolean.TRUE.equals(booked), RoomResponse.thumbnailUrl(id, row.get("photo_key", String.class)), null);
+    }
+}
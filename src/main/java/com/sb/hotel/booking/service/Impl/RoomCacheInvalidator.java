@@ -0,0 +1,62 @@
+package com.sb.hotel.booking.service.Impl;
+
+import com.sb.hotel.booking.config.CacheConfig;
+import com.sb.hotel.booking.event.BookingChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evicts a cached room and the cached room pages once a change to it has committed, since bookings change
+ * {@code isBooked}.
+ * <p>
+ * Single rooms load with {@code sync = true}, and Caffeine makes an eviction wait for a load of the same key
+ * that is in progress, so a read that started before the commit cannot put its stale room back afterwards.
+ * A change can show on any page, and {@code clear()} does not wait for loads; page keys therefore start with a
+ * generation that every change bumps, and a page loaded before the change is stored under a key no later read
+ * asks for. Either way, every read that starts after a booking call returns sees the change.
+ */
+@Component
+@RequiredArgsConstructor
+public class RoomCacheInvalidator {
+
+    private final CacheManager cacheManager;
+    private final AtomicLong pageGeneration = new AtomicLong();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        evictRoom(event.getRoomId());
+    }
+
+    /**
+     * The generation that page cache keys start with; see {@code RoomServiceImpl#getRooms}.
+     * @return the current page generation
+     */
+    public long pageGeneration() {
+        return pageGeneration.get();
+    }
+
+    /**
+     * Evicts a room and every cached page.
+     * @param roomId the ID of the room that changed, or null if only the pages are affected
+     */
+    public void evictRoom(Long roomId) {
+        Cache rooms = cacheManager.getCache(CacheConfig.ROOMS);
+        if (rooms != null && roomId != null) {
+            rooms.evict(roomId);
+        }
+        evictRoomPages();
+    }
+
+    private void evictRoomPages() {
+        pageGeneration.incrementAndGet();
+        Cache pages = cacheManager.getCache(CacheConfig.ROOM_PAGES);
+        if (pages != null) {
+            pages.clear();
+        }
+    }
+}
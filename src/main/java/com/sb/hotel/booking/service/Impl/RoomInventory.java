@@ -0,0 +1,126 @@
+package com.sb.hotel.booking.service.Impl;
+
+import com.sb.hotel.booking.availability.OccupancyCalendar;
+import com.sb.hotel.booking.models.BookedRoom;
+import com.sb.hotel.booking.models.RoomDayInventory;
+import com.sb.hotel.booking.models.RoomOccupancy;
+import com.sb.hotel.booking.repository.BookingRepository;
+import com.sb.hotel.booking.repository.RoomDayInventoryRepository;
+import com.sb.hotel.booking.repository.RoomOccupancyRepository;
+import com.sb.hotel.booking.repository.projection.BookingIntervalView;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Keeps the {@link RoomDayInventory} and the {@link RoomOccupancy} calendars in step with the bookings.
+ * Must be called inside the booking's transaction, with the room locked, so the nights are sold and
+ * freed together with the booking itself.
+ */
+@Component
+@RequiredArgsConstructor
+public class RoomInventory {
+
+    private final RoomDayInventoryRepository inventoryRepository;
+    private final RoomOccupancyRepository occupancyRepository;
+    private final BookingRepository bookingRepository;
+    private final EntityManager entityManager;
+
+    /**
+     * Checks whether a room is free on every night of [checkInDate, checkOutDate). Stays inside the
+     * occupancy window are answered from the room's calendar, others by querying the bookings.
+     * @param roomId the ID of the room
+     * @param checkInDate the requested check-in date
+     * @param checkOutDate the requested check-out date
+     * @param exceptBookingId a booking to ignore (the one being updated, already released), or null
+     * @return true if the room is free
+     */
+    public boolean isAvailable(Long roomId, LocalDate checkInDate, LocalDate checkOutDate, Long exceptBookingId) {
+        OccupancyCalendar calendar = occupancy(roomId).getCalendar();
+        long from = checkInDate.toEpochDay();
+        long to = checkOutDate.toEpochDay();
+        if (calendar.covers(from, to)) {
+            return calendar.isFree(from, to);
+        }
+        return exceptBookingId == null
+                ? !bookingRepository.existsOverlappingBooking(roomId, checkInDate, checkOutDate)
+                : !bookingRepository.existsOverlappingBookingExcept(roomId, checkInDate, checkOutDate, exceptBookingId);
+    }
+
+    /**
+     * Returns a copy of a room's calendar, for checking several stays against it at once.
+     * @param roomId the ID of the room
+     * @return the calendar, free to modify
+     */
+    public OccupancyCalendar calendar(Long roomId) {
+        return occupancy(roomId).getCalendar();
+    }
+
+    /**
+     * Sells the nights of a saved booking.
+     * @param booking the booking, with its ID and room set
+     */
+    public void reserve(BookedRoom booking) {
+        Long roomId = booking.getRoom().getId();
+        reserve(booking.getBookingId(), roomId, booking.getCheckInDate(), booking.getCheckOutDate());
+        RoomOccupancy occupancy = occupancy(roomId);
+        OccupancyCalendar calendar = occupancy.getCalendar();
+        calendar.occupy(booking.getCheckInDate(), booking.getCheckOutDate());
+        occupancy.setCalendar(calendar);
+    }
+
+    /**
+     * Sells every night from the check-in date up to the day before the check-out date in the day inventory.
+     * @return the number of nights sold
+     */
+    int reserve(Long bookingId, Long roomId, LocalDate checkInDate, LocalDate checkOutDate) {
+        int nights = 0;
+        for (LocalDate night = checkInDate; night.isBefore(checkOutDate); night = night.plusDays(1)) {
+            // persist, not save: the key is assigned, and save would first look the row up
+            entityManager.persist(new RoomDayInventory(roomId, night, bookingId));
+            nights++;
+        }
+        return nights;
+    }
+
+    /**
+     * Frees the nights of a booking, as they were before any change to it in this transaction.
+     * @param booking the booking, with its room and dates as stored
+     */
+    public void release(BookedRoom booking) {
+        inventoryRepository.deleteByBookingId(booking.getBookingId());
+        RoomOccupancy occupancy = occupancy(booking.getRoom().getId());
+        OccupancyCalendar calendar = occupancy.getCalendar();
+        calendar.release(booking.getCheckInDate(), booking.getCheckOutDate());
+        occupancy.setCalendar(calendar);
+    }
+
+    /**
+     * Loads a room's occupancy row, creating it, or rebuilding it from the bookings when its window no longer
+     * starts at the current origin. The room must be locked, so two transactions never build the same row.
+     */
+    private RoomOccupancy occupancy(Long roomId) {
+        long origin = OccupancyCalendar.originFor(LocalDate.now());
+        RoomOccupancy occupancy = occupancyRepository.findById(roomId).orElse(null);
+        if (occupancy != null && occupancy.getOriginDate().toEpochDay() == origin) {
+            return occupancy;
+        }
+
+        OccupancyCalendar calendar = new OccupancyCalendar(origin);
+        List<BookingIntervalView> intervals = bookingRepository.findIntervalsOverlapping(List.of(roomId),
+                LocalDate.ofEpochDay(origin), LocalDate.ofEpochDay(origin + OccupancyCalendar.DAYS));
+        for (BookingIntervalView interval : intervals) {
+            calendar.occupy(interval.getCheckInDate(), interval.getCheckOutDate());
+        }
+        if (occupancy == null) {
+            occupancy = new RoomOccupancy(roomId, calendar);
+            entityManager.persist(occupancy);
+        } else {
+            occupancy.setCalendar(calendar);
+        }
+        return occupancy;
+    }
+}
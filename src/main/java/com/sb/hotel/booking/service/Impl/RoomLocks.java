@@ -0,0 +1,71 @@
+package com.sb.hotel.booking.service.Impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped in-process locks keyed by room ID.
+ * <p>
+ * Booking writes for the same room queue up here before they open a transaction, so they wait without
+ * holding a pooled connection. Writes for different rooms take different stripes and run in parallel
+ * (unless two rooms hash to the same stripe). The {@code SELECT ... FOR UPDATE} taken inside the
+ * transaction still guarantees correctness across several application instances.
+ */
+@Component
+public class RoomLocks {
+
+    private final ReentrantLock[] stripes;
+
+    public RoomLocks(@Value("${booking.lock-stripes:256}") int stripeCount) {
+        if (stripeCount <= 0 || Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("booking.lock-stripes must be a power of two, was " + stripeCount);
+        }
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Runs the action while holding the lock of one room.
+     */
+    public <T> T withRoomLock(Long roomId, Supplier<T> action) {
+        ReentrantLock lock = stripes[stripeIndex(roomId)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs the action while holding the locks of several rooms. Stripes are always taken in
+     * ascending order, so two callers locking overlapping sets of rooms cannot deadlock.
+     */
+    public <T> T withRoomLocks(Collection<Long> roomIds, Supplier<T> action) {
+        int[] indexes = roomIds.stream().mapToInt(this::stripeIndex).distinct().sorted().toArray();
+        int locked = 0;
+        try {
+            for (int index : indexes) {
+                stripes[index].lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+
+    private int stripeIndex(Long roomId) {
+        int hash = roomId.hashCode();
+        hash ^= (hash >>> 16);
+        return hash & (stripes.length - 1);
+    }
+}
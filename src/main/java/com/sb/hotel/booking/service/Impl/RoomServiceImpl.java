@@ -1,28 +1,82 @@
 package com.sb.hotel.booking.service.Impl;
 
+import com.sb.hotel.booking.Response.AvailabilityCalendar;
+import com.sb.hotel.booking.Response.CursorPage;
+import com.sb.hotel.booking.Response.CursorToken;
+import com.sb.hotel.booking.Response.RoomResponse;
+import com.sb.hotel.booking.availability.FlexibleDateSearch;
+import com.sb.hotel.booking.availability.RoomAvailabilityIndex;
+import com.sb.hotel.booking.config.CacheConfig;
+import com.sb.hotel.booking.event.RoomAddedEvent;
+import com.sb.hotel.booking.metrics.HotelMetrics;
 import com.sb.hotel.booking.models.Room;
+import com.sb.hotel.booking.repository.BookingRepository;
 import com.sb.hotel.booking.repository.RoomRepository;
+import com.sb.hotel.booking.repository.projection.BookingIntervalView;
+import com.sb.hotel.booking.repository.projection.BookingSummaryView;
+import com.sb.hotel.booking.repository.projection.RoomSummaryView;
+import com.sb.hotel.booking.response.BookingResponse;
+import com.sb.hotel.booking.service.PhotoStorageService;
+import com.sb.hotel.booking.service.PhotoVariantService;
 import com.sb.hotel.booking.service.RoomService;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.annotation.Observed;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
+@Observed(name = "hotel.service")
 @Slf4j
 public class RoomServiceImpl implements RoomService {
 
     private final RoomRepository roomRepository;
+    private final BookingRepository bookingRepository;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final PhotoStorageService photoStorageService;
+    private final PhotoVariantService photoVariantService;
+    private final RoomCacheInvalidator roomCacheInvalidator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final HotelMetrics metrics;
+    private final AvailabilitySearchCoalescer searchCoalescer;
+    private final TransactionTemplate readOnlyTransactions;
+
+    public RoomServiceImpl(RoomRepository roomRepository, BookingRepository bookingRepository,
+                           RoomAvailabilityIndex availabilityIndex, PhotoStorageService photoStorageService,
+                           PhotoVariantService photoVariantService, RoomCacheInvalidator roomCacheInvalidator,
+                           ApplicationEventPublisher eventPublisher, HotelMetrics metrics,
+                           AvailabilitySearchCoalescer searchCoalescer, PlatformTransactionManager transactionManager) {
+        this.roomRepository = roomRepository;
+        this.bookingRepository = bookingRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.photoStorageService = photoStorageService;
+        this.photoVariantService = photoVariantService;
+        this.roomCacheInvalidator = roomCacheInvalidator;
+        this.eventPublisher = eventPublisher;
+        this.metrics = metrics;
+        this.searchCoalescer = searchCoalescer;
+        // Searches only read: no flush at commit, and the connection is marked read-only
+        this.readOnlyTransactions = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactions.setReadOnly(true);
+    }
 
     @Override
     public Room addNewRoom(MultipartFile file, String hotelName,String roomType, BigDecimal roomPrice) throws IOException {
@@ -34,58 +88,150 @@ public class RoomServiceImpl implements RoomService {
         room.setRoomPrice(roomPrice);
 
         if (!file.isEmpty()) {
-            byte[] photoBytes = file.getBytes();
-            room.setPhoto(photoBytes);
+            try (InputStream photo = file.getInputStream()) {
+                room.setPhotoKey(photoStorageService.store(photo, file.getContentType()));
+            }
             log.info("Photo successfully added for room type: {}", roomType);
         } else {
             log.warn("No photo provided for room type: {}", roomType);
         }
 
         Room savedRoom = roomRepository.save(room);
+        availabilityIndex.registerRoom(savedRoom.getId(), savedRoom.getRoomType());
+        roomCacheInvalidator.evictRoom(savedRoom.getId());
+        eventPublisher.publishEvent(new RoomAddedEvent(savedRoom.getId(), savedRoom.getRoomType()));
+        if (savedRoom.getPhotoKey() != null) {
+            photoVariantService.generateVariants(savedRoom.getPhotoKey());
+        }
         log.info("Room added successfully with ID: {}", savedRoom.getId());
 
         return savedRoom;
     }
 
     @Override
-    public Page<Room> getAllRooms(Pageable pageable) {
-        log.info("Retrieving all rooms with pagination: {}", pageable);
-        Page<Room> rooms = roomRepository.findAll(pageable);
-        log.info("Retrieved {} rooms", rooms.getTotalElements());
+    public Page<RoomResponse> getAllRooms(Pageable pageable) {
+        log.debug("Retrieving all rooms with pagination: {}", pageable);
+        Page<RoomResponse> rooms = roomRepository.findSummaries(pageable).map(RoomServiceImpl::toListing);
+        log.debug("Retrieved {} rooms", rooms.getTotalElements());
         return rooms;
     }
 
     @Override
-    public Page<Room> getAvailableRooms(LocalDate checkInDate, LocalDate checkOutDate, String roomType, Pageable pageable) {
-        log.info("Retrieving available rooms of type: {} between dates: {} and {}", roomType, checkInDate, checkOutDate);
-        Page<Room> rooms = roomRepository.findAvailableRoomsByDatesAndType(checkInDate, checkOutDate, roomType, pageable);
-        //log.info("Retrieved {} available rooms", rooms.getTotalElements());
-        return rooms;
+    public Page<RoomResponse> getAvailableRooms(LocalDate checkInDate, LocalDate checkOutDate, String roomType, Pageable pageable) {
+        log.debug("Retrieving available rooms of type: {} between dates: {} and {}", roomType, checkInDate, checkOutDate);
+        return searchCoalescer.execute("page", new AvailabilityQuery(checkInDate, checkOutDate, roomType, pageable), () -> {
+            Timer.Sample sample = metrics.startSearch();
+            Page<RoomResponse> rooms = roomRepository.findAvailableSummariesByDatesAndType(checkInDate, checkOutDate, roomType, pageable)
+                    .map(RoomServiceImpl::toListing);
+            metrics.stopSearch(sample, "page", roomType, "sql");
+            return rooms;
+        });
+    }
+
+    /**
+     * The parameters of an availability search, identifying identical searches for the {@link AvailabilitySearchCoalescer}.
+     */
+    private record AvailabilityQuery(LocalDate checkInDate, LocalDate checkOutDate, String roomType, Pageable pageable) {
     }
 
     @Override
-    public List<Room> getAllRooms() {
-        log.info("Retrieving all rooms without pagination");
-        List<Room> rooms = roomRepository.findAll();
-        log.info("Retrieved {} rooms", rooms.size());
+    public List<RoomResponse> getAllRooms() {
+        log.debug("Retrieving all rooms without pagination");
+        List<RoomResponse> rooms = roomRepository.findAllSummaries().stream().map(RoomServiceImpl::toListing).toList();
+        log.debug("Retrieved {} rooms", rooms.size());
         return rooms;
     }
 
-    @Transactional
+    // The generation keeps a page loaded before a change from being served after it; see RoomCacheInvalidator
+    @Cacheable(cacheNames = CacheConfig.ROOM_PAGES, sync = true,
+            key = "@roomCacheInvalidator.pageGeneration() + ':' + #after + ':' + #size")
     @Override
-    public List<Room> getAvailableRooms(LocalDate checkInDate, LocalDate checkOutDate, String roomType) {
-        log.info("Retrieving available rooms of type: {} between dates: {} and {}", roomType, checkInDate, checkOutDate);
-        List<Room> rooms = roomRepository.findAvailableRoomsByDatesAndType(checkInDate, checkOutDate, roomType);
-        log.info("Retrieved {} available rooms", rooms.size());
-        return rooms;
+    public CursorPage<RoomResponse> getRooms(String after, int size) {
+        int pageSize = CursorPage.boundedSize(size);
+        long afterId = after == null ? 0L : parseId(CursorToken.decode(after, 1)[0], after);
+        List<RoomResponse> rooms = roomRepository.findSummariesAfter(afterId, Limit.of(pageSize + 1)).stream()
+                .map(RoomServiceImpl::toListing)
+                .toList();
+        return CursorPage.of(rooms, pageSize, room -> CursorToken.encode(room.getId()));
     }
 
+    /**
+     * A room as shown in listings, without its bookings.
+     */
+    private static RoomResponse toListing(RoomSummaryView room) {
+        return new RoomResponse(room.getId(), room.getRoomType(), room.getRoomPrice(), room.isBooked(),
+                RoomResponse.thumbnailUrl(room.getId(), room.getPhotoKey()), List.of());
+    }
+
+    private static long parseId(String value, String cursor) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    // Not @Transactional: only the search that runs needs a transaction, not the identical ones waiting for it
     @Override
-    public Optional<Room> getRoomById(Long roomId) {
-        log.info("Retrieving room by ID: {}", roomId);
-        Optional<Room> roomOptional = roomRepository.findById(roomId);
+    public List<RoomResponse> getAvailableRoomResponses(LocalDate checkInDate, LocalDate checkOutDate, String roomType) {
+        log.debug("Retrieving available room responses of type: {} between dates: {} and {}", roomType, checkInDate, checkOutDate);
+        return searchCoalescer.execute("list", new AvailabilityQuery(checkInDate, checkOutDate, roomType, null),
+                () -> readOnlyTransactions.execute(status -> findAvailableRoomResponses(checkInDate, checkOutDate, roomType)));
+    }
+
+    private List<RoomResponse> findAvailableRoomResponses(LocalDate checkInDate, LocalDate checkOutDate, String roomType) {
+        Timer.Sample sample = metrics.startSearch();
+        Optional<List<Long>> availableIds = availabilityIndex.findAvailableRoomIds(checkInDate, checkOutDate, roomType);
+        List<RoomSummaryView> rooms = availableIds
+                .map(ids -> ids.isEmpty() ? List.<RoomSummaryView>of() : roomRepository.findSummariesByIdIn(ids))
+                .orElseGet(() -> roomRepository.findAvailableRoomSummaries(checkInDate, checkOutDate, roomType));
+        String source = availableIds.isPresent() ? "index" : "sql";
+        if (rooms.isEmpty()) {
+            metrics.stopSearch(sample, "list", roomType, source);
+            return List.of();
+        }
+
+        List<Long> roomIds = rooms.stream().map(RoomSummaryView::getId).toList();
+        Map<Long, List<BookingResponse>> bookingsByRoom = bookingRepository.findSummariesByRoomIdIn(roomIds).stream()
+                .collect(Collectors.groupingBy(BookingSummaryView::getRoomId,
+                        Collectors.mapping(booking -> new BookingResponse(booking.getBookingId(), booking.getCheckInDate(),
+                                booking.getCheckOutDate(), booking.getBookingConfirmationCode()), Collectors.toList())));
+
+        List<RoomResponse> responses = rooms.stream()
+                .map(room -> new RoomResponse(room.getId(), room.getRoomType(), room.getRoomPrice(), room.isBooked(),
+                        RoomResponse.thumbnailUrl(room.getId(), room.getPhotoKey()),
+                        bookingsByRoom.getOrDefault(room.getId(), List.of())))
+                .toList();
+        metrics.stopSearch(sample, "list", roomType, source);
+        return responses;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public AvailabilityCalendar getAvailabilityCalendar(LocalDate from, LocalDate to, int nights, String roomType) {
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_CALENDAR_DAYS) {
+            throw new IllegalArgumentException("The check-in window must run forwards and span at most " + MAX_CALENDAR_DAYS + " days.");
+        }
+        if (nights < 1 || nights > MAX_CALENDAR_NIGHTS) {
+            throw new IllegalArgumentException("The stay must be between 1 and " + MAX_CALENDAR_NIGHTS + " nights.");
+        }
+        log.debug("Building availability calendar of type: {} for {} nights with check-in from {} to {}", roomType, nights, from, to);
+        Timer.Sample sample = metrics.startSearch();
+        List<RoomSummaryView> rooms = roomRepository.findSummariesByRoomTypeContaining(roomType);
+        List<BookingIntervalView> intervals = rooms.isEmpty() ? List.of()
+                : bookingRepository.findIntervalsOverlappingForRoomType(roomType, from, to.plusDays(nights));
+        AvailabilityCalendar calendar = FlexibleDateSearch.calendar(from, to, nights, roomType, rooms, intervals);
+        metrics.stopSearch(sample, "calendar", roomType, "sql");
+        return calendar;
+    }
+
+    @Cacheable(cacheNames = CacheConfig.ROOMS, key = "#roomId", sync = true)
+    @Override
+    public Optional<RoomResponse> getRoomById(Long roomId) {
+        log.debug("Retrieving room by ID: {}", roomId);
+        Optional<RoomResponse> roomOptional = roomRepository.findSummaryById(roomId).map(RoomServiceImpl::toListing);
         if (roomOptional.isPresent()) {
-            log.info("Room found with ID: {}", roomId);
+            log.debug("Room found with ID: {}", roomId);
         } else {
             log.warn("Room not found with ID: {}", roomId);
         }
@@ -93,21 +239,16 @@ public class RoomServiceImpl implements RoomService {
     }
 
     @Override
-    public byte[] getRoomPhotoByRoomId(Long roomId) throws IOException {
-        log.info("Retrieving photo for room ID: {}", roomId);
-        Room room = roomRepository.findById(roomId)
-                .orElseThrow(() -> {
-                    log.error("Room not found with ID: {}", roomId);
-                    return new RuntimeException("Room not found with ID: " + roomId);
-                });
-
-        byte[] photoBytes = room.getPhoto();
-        if (photoBytes != null) {
-            log.info("Photo retrieved for room ID: {}", roomId);
-        } else {
+    public Optional<String> getRoomPhotoKey(Long roomId) {
+        log.debug("Retrieving photo key for room ID: {}", roomId);
+        Optional<String> photoKey = roomRepository.findPhotoKeyById(roomId);
+        if (photoKey.isEmpty()) {
+            if (!roomRepository.existsById(roomId)) {
+                log.error("Room not found with ID: {}", roomId);
+                throw new RuntimeException("Room not found with ID: " + roomId);
+            }
             log.warn("No photo found for room ID: {}", roomId);
         }
-
-        return photoBytes != null ? photoBytes : new byte[0];
+        return photoKey;
     }
 }
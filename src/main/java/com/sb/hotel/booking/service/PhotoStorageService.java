@@ -0,0 +1,43 @@
+package com.sb.hotel.booking.service;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+public interface PhotoStorageService {
+
+    /**
+     * Streams a photo into the store. Identical content is only stored once.
+     * @param content the photo content, read to the end but not closed
+     * @param contentType the media type of the photo, used to pick the file extension
+     * @return the content-addressed key of the stored photo
+     * @throws IOException if the photo cannot be written
+     */
+    String store(InputStream content, String contentType) throws IOException;
+
+    /**
+     * Loads a stored photo.
+     * @param key the key returned by {@link #store(InputStream, String)}
+     * @return the photo as a streamable resource, or an empty Optional if there is no photo with this key
+     */
+    Optional<Resource> load(String key);
+
+    /**
+     * Stores a resized copy of a photo next to the original, replacing any previous copy.
+     * @param key the key of the original photo
+     * @param variant the variant being stored
+     * @param content the encoded JPEG content
+     * @throws IOException if the variant cannot be written
+     */
+    void storeVariant(String key, PhotoVariant variant, InputStream content) throws IOException;
+
+    /**
+     * Loads a resized copy of a photo.
+     * @param key the key of the original photo
+     * @param variant the variant to load
+     * @return the variant, or an empty Optional if it has not been generated (yet)
+     */
+    Optional<Resource> loadVariant(String key, PhotoVariant variant);
+}
@@ -0,0 +1,36 @@
+package com.sb.hotel.booking.service;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Resized copies generated for every room photo, bounded by their longest edge in pixels.
+ */
+public enum PhotoVariant {
+
+    THUMBNAIL(240),
+    MEDIUM(800),
+    FULL(1920);
+
+    private final int maxDimension;
+
+    PhotoVariant(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    /**
+     * Name used in URLs and file names, e.g. {@code thumbnail}.
+     */
+    public String pathName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static Optional<PhotoVariant> fromPathName(String pathName) {
+        return Arrays.stream(values()).filter(variant -> variant.pathName().equals(pathName)).findFirst();
+    }
+}
@@ -0,0 +1,11 @@
+package com.sb.hotel.booking.service;
+
+public interface PhotoVariantService {
+
+    /**
+     * Generates and stores every {@link PhotoVariant} of a stored photo. Runs on the photo worker pool,
+     * so the caller returns immediately; failures are logged and the original photo is served instead.
+     * @param photoKey the key of the original photo
+     */
+    void generateVariants(String photoKey);
+}
@@ -0,0 +1,19 @@
+package com.sb.hotel.booking.service;
+
+import com.sb.hotel.booking.Response.RoomResponse;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+
+public interface ReactiveRoomSearchService {
+
+    /**
+     * Streams the rooms of a type that are free between two dates, in ID order, as they are read from the
+     * database. Same matching as {@link RoomService#getAvailableRoomResponses}, but the rooms carry no bookings.
+     * @param checkInDate the check-in date
+     * @param checkOutDate the check-out date
+     * @param roomType the type of the room
+     * @return the available rooms
+     */
+    Flux<RoomResponse> findAvailableRooms(LocalDate checkInDate, LocalDate checkOutDate, String roomType);
+}
@@ -1,5 +1,8 @@
 package com.sb.hotel.booking.service;
 
+import com.sb.hotel.booking.Response.AvailabilityCalendar;
+import com.sb.hotel.booking.Response.CursorPage;
+import com.sb.hotel.booking.Response.RoomResponse;
 import com.sb.hotel.booking.models.Room;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -13,6 +16,9 @@ import java.util.Optional;
 
 public interface RoomService {
 
+    int MAX_CALENDAR_DAYS = 366;
+    int MAX_CALENDAR_NIGHTS = 30;
+
     /**
      * Adds a new room with the specified details and photo.
      * @param file the photo of the room
@@ -24,11 +30,11 @@ public interface RoomService {
     Room addNewRoom(MultipartFile file,String hotelName, String roomType, BigDecimal roomPrice) throws IOException;
 
     /**
-     * Retrieves all rooms with pagination and filtering options.
+     * Retrieves all rooms with pagination and filtering options. Only the listing columns are read.
      * @param pageable pagination information
-     * @return a paginated list of rooms
+     * @return a paginated list of rooms, without their bookings
      */
-    Page<Room> getAllRooms(Pageable pageable);
+    Page<RoomResponse> getAllRooms(Pageable pageable);
 
     /**
      * Retrieves available rooms based on the specified date range and room type.
@@ -36,25 +42,63 @@ public interface RoomService {
      * @param checkOutDate the check-out date
      * @param roomType the type of the room
      * @param pageable pagination information
-     * @return a paginated list of available rooms
+     * @return a paginated list of available rooms, without their bookings; shared with identical searches made
+     * at the same time (see {@code AvailabilitySearchCoalescer}), so it must not be modified
      */
-    Page<Room> getAvailableRooms(LocalDate checkInDate, LocalDate checkOutDate, String roomType, Pageable pageable);
+    Page<RoomResponse> getAvailableRooms(LocalDate checkInDate, LocalDate checkOutDate, String roomType, Pageable pageable);
 
-    List<Room> getAllRooms();
+    /**
+     * Retrieves all rooms.
+     * @return all rooms, without their bookings
+     */
+    List<RoomResponse> getAllRooms();
 
-    List<Room> getAvailableRooms(LocalDate checkInDate, LocalDate checkOutDate, String roomType);
     /**
-     * Retrieves a room by its ID.
+     * Retrieves rooms with keyset pagination, ordered by ID. Each page costs the same however deep it is.
+     * Pages are cached until a room is added or booked; they are shared with other callers and must not be modified.
+     * @param after the cursor returned with the previous page, or null for the first page
+     * @param size the page size, clamped to {@link CursorPage#MAX_SIZE}
+     * @return the page of rooms
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    CursorPage<RoomResponse> getRooms(String after, int size);
+
+    /**
+     * Retrieves available rooms with their bookings, ready to be returned by the API.
+     * Uses one query for the rooms and one for all of their bookings, and never reads the photos.
+     * Identical searches made at the same time share one run and its result, which must not be modified.
+     * @param checkInDate the check-in date
+     * @param checkOutDate the check-out date
+     * @param roomType the type of the room
+     * @return the available rooms ordered by ID
+     */
+    List<RoomResponse> getAvailableRoomResponses(LocalDate checkInDate, LocalDate checkOutDate, String roomType);
+
+    /**
+     * Finds, for every check-in date in a window, how many rooms are free for the whole stay and the cheapest
+     * of them. Reads the rooms and their bookings in the window once, whatever the window length.
+     * @param from the first check-in date
+     * @param to the last check-in date
+     * @param nights the length of the stay
+     * @param roomType the type of the room
+     * @return the calendar, one day per check-in date
+     * @throws IllegalArgumentException if the window is reversed or longer than {@link #MAX_CALENDAR_DAYS} days,
+     * or the stay is not between 1 and {@link #MAX_CALENDAR_NIGHTS} nights
+     */
+    AvailabilityCalendar getAvailabilityCalendar(LocalDate from, LocalDate to, int nights, String roomType);
+
+    /**
+     * Retrieves a room by its ID, without its bookings. Cached until the room is booked; the returned room is
+     * shared with other callers and must not be modified.
      * @param roomId the ID of the room
-     * @return an Optional containing the Room object if found, or an empty Optional if not found
+     * @return an Optional containing the room if found, or an empty Optional if not found
      */
-    Optional<Room> getRoomById(Long roomId);
+    Optional<RoomResponse> getRoomById(Long roomId);
 
     /**
-     * Retrieves the photo of a room by its ID.
+     * Retrieves the key of a room's photo in the {@link PhotoStorageService}.
      * @param roomId the ID of the room
-     * @return a byte array representing the photo of the room
-     * @throws IOException if there is an error processing the photo
+     * @return the photo key, or an empty Optional if the room has no photo
      */
-    byte[] getRoomPhotoByRoomId(Long roomId) throws IOException;
+    Optional<String> getRoomPhotoKey(Long roomId);
 }
@@ -0,0 +1,18 @@
+-- Runs on every startup after Hibernate has updated the schema (spring.sql.init.mode=always),
+-- so every statement must be idempotent.
+
+-- Equality lookups by confirmation code (findByBookingConfirmationCode). The unique constraint's
+-- b-tree still enforces uniqueness; the hash index is smaller and needs fewer page reads per probe.
+CREATE INDEX IF NOT EXISTS idx_booked_room_confirmation_code_hash ON booked_room USING hash (confirmation_code);
+
+-- booked_room ids used to come from an identity column. Move the sequence past existing ids once;
+-- it is never moved backwards, as other instances may hold ids allocated from it.
+SELECT setval('booked_room_seq', m) FROM (SELECT MAX(booking_id) AS m FROM booked_room) ids
+WHERE m > (SELECT last_value FROM booked_room_seq);
+
+-- Guest booking history (findByGuestEmailAfter) matches emails case-insensitively on lower(guest_email), which
+-- JPA index annotations cannot express. The included columns are all the page returns, so it is an index-only scan.
+CREATE INDEX IF NOT EXISTS idx_booked_room_guest_lower ON booked_room (lower(guest_email), check_in_date, booking_id)
+    INCLUDE (check_out_date, confirmation_code);
+-- Superseded by idx_booked_room_guest_lower
+DROP INDEX IF EXISTS idx_booked_room_guest;
@@ -0,0 +1,48 @@
+package com.sb.hotel.booking;
+
+import com.sb.hotel.booking.models.BookedRoom;
+import com.sb.hotel.booking.models.Room;
+import com.sb.hotel.booking.repository.RoomRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Rooms and bookings shared by the tests. Rooms are saved straight through the repository, so they are not
+ * registered in the availability index or evicted from the room caches; bookings are returned unsaved,
+ * ready to be passed to the BookingService.
+ */
+public final class BookingFixtures {
+
+    public static final BigDecimal ROOM_PRICE = BigDecimal.valueOf(100);
+
+    private BookingFixtures() {
+    }
+
+    public static Long createRoom(RoomRepository roomRepository, String roomType) {
+        return createRoom(roomRepository, roomType, ROOM_PRICE);
+    }
+
+    public static Long createRoom(RoomRepository roomRepository, String roomType, BigDecimal roomPrice) {
+        Room room = new Room();
+        room.setHotelName("Test Hotel");
+        room.setRoomType(roomType);
+        room.setRoomPrice(roomPrice);
+        return roomRepository.save(room).getId();
+    }
+
+    public static BookedRoom booking(LocalDate checkIn, LocalDate checkOut) {
+        return booking(checkIn, checkOut, "guest@example.com");
+    }
+
+    public static BookedRoom booking(LocalDate checkIn, LocalDate checkOut, String guestEmail) {
+        BookedRoom booking = new BookedRoom();
+        booking.setCheckInDate(checkIn);
+        booking.setCheckOutDate(checkOut);
+        booking.setGuestFullName("Test Guest");
+        booking.setGuestEmail(guestEmail);
+        booking.setNumOfAdults(1);
+        booking.setTotalNumOfGuest(1);
+        return booking;
+    }
+}
@@ -0,0 +1,130 @@
+package com.sb.hotel.booking.audit;
+
+import com.sb.hotel.booking.event.BookingChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SegmentFileEventSinkTest {
+
+    // Room for 10 records of 58 bytes, so the tests cross segments
+    private static final int SEGMENT_SIZE = 600;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysEveryRecordInOrderAcrossSegments() throws IOException {
+        List<BookingAuditRecord> written = records(1, 25);
+        try (SegmentFileEventSink sink = new SegmentFileEventSink(directory, SEGMENT_SIZE)) {
+            sink.append(written.subList(0, 7));
+            sink.append(written.subList(7, 25));
+
+            assertEquals(written, replay(sink));
+        }
+        assertEquals(3, segmentCount());
+    }
+
+    @Test
+    void reopeningContinuesAfterTheLastRecord() throws IOException {
+        try (SegmentFileEventSink sink = new SegmentFileEventSink(directory, SEGMENT_SIZE)) {
+            sink.append(records(1, 14));
+        }
+        try (SegmentFileEventSink sink = new SegmentFileEventSink(directory, SEGMENT_SIZE)) {
+            sink.append(records(15, 20));
+
+            assertEquals(records(1, 20), replay(sink));
+        }
+    }
+
+    @Test
+    void aRecordCutShortIsDroppedAndOverwritten() throws IOException {
+        try (SegmentFileEventSink sink = new SegmentFileEventSink(directory, SEGMENT_SIZE)) {
+            sink.append(records(1, 3));
+        }
+        // Corrupt the third record's payload, as a crash in the middle of writing it would
+        try (FileChannel segment = FileChannel.open(directory.resolve("segment-0000000000.log"), StandardOpenOption.WRITE)) {
+            segment.write(ByteBuffer.wrap(new byte[] {42, 42, 42}), 2 * 58 + 20);
+        }
+        try (SegmentFileEventSink sink = new SegmentFileEventSink(directory, SEGMENT_SIZE)) {
+            assertEquals(records(1, 2), replay(sink));
+
+            sink.append(records(4, 4));
+            List<BookingAuditRecord> expected = new ArrayList<>(records(1, 2));
+            expected.addAll(records(4, 4));
+            assertEquals(expected, replay(sink));
+        }
+    }
+
+    @Test
+    void onlyOneSinkWritesADirectory() throws IOException {
+        try (SegmentFileEventSink sink = new SegmentFileEventSink(directory, SEGMENT_SIZE)) {
+            assertThrows(IllegalStateException.class, () -> new SegmentFileEventSink(directory, SEGMENT_SIZE));
+        }
+        new SegmentFileEventSink(directory, SEGMENT_SIZE).close();
+    }
+
+    @Test
+    void keepsRecordsWithoutRoomOrDates() throws IOException {
+        BookingAuditRecord record = new BookingAuditRecord(9, BookingChangedEvent.Type.CANCELLED, 90, null, null, null,
+                Instant.ofEpochMilli(1_700_000_000_000L));
+        try (SegmentFileEventSink sink = new SegmentFileEventSink(directory, SEGMENT_SIZE)) {
+            sink.append(List.of(record));
+
+            assertEquals(List.of(record), replay(sink));
+        }
+        assertTrue(Files.exists(directory.resolve("segment-0000000000.log")));
+    }
+
+    @Test
+    void typesAreStoredAsFixedCodes() throws IOException {
+        try (SegmentFileEventSink sink = new SegmentFileEventSink(directory, SEGMENT_SIZE)) {
+            sink.append(List.of(record(BookingChangedEvent.Type.CREATED), record(BookingChangedEvent.Type.UPDATED),
+                    record(BookingChangedEvent.Type.CANCELLED)));
+        }
+        byte[] segment = Files.readAllBytes(directory.resolve("segment-0000000000.log"));
+        // The type follows the 8-byte header and the format byte of each 58-byte record
+        assertEquals(List.of((byte) 0, (byte) 1, (byte) 2), List.of(segment[9], segment[58 + 9], segment[2 * 58 + 9]));
+    }
+
+    private static BookingAuditRecord record(BookingChangedEvent.Type type) {
+        return new BookingAuditRecord(1, type, 10, 1L, null, null, Instant.ofEpochMilli(1_700_000_000_000L));
+    }
+
+    private static List<BookingAuditRecord> records(long fromId, long toId) {
+        BookingChangedEvent.Type[] types = BookingChangedEvent.Type.values();
+        LocalDate day = LocalDate.of(2030, 1, 1);
+        return LongStream.rangeClosed(fromId, toId)
+                .mapToObj(id -> new BookingAuditRecord(id, types[(int) (id % types.length)], 100 + id, id % 4 + 1,
+                        day.plusDays(id), day.plusDays(id + 2), Instant.ofEpochMilli(1_700_000_000_000L + id)))
+                .toList();
+    }
+
+    private static List<BookingAuditRecord> replay(EventSink sink) throws IOException {
+        List<BookingAuditRecord> replayed = new ArrayList<>();
+        sink.replay(replayed::add);
+        return replayed;
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("segment-")).count();
+        }
+    }
+}
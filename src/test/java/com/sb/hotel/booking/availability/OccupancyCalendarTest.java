@@ -0,0 +1,91 @@
+package com.sb.hotel.booking.availability;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OccupancyCalendarTest {
+
+    private static final long ORIGIN = OccupancyCalendar.originFor(LocalDate.of(2030, 3, 14));
+
+    @Test
+    void matchesANightByNightCheckOnRandomStays() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            OccupancyCalendar calendar = new OccupancyCalendar(ORIGIN);
+            boolean[] sold = new boolean[OccupancyCalendar.DAYS];
+            for (int i = 0; i < 30; i++) {
+                int from = random.nextInt(OccupancyCalendar.DAYS);
+                int to = Math.min(OccupancyCalendar.DAYS, from + 1 + random.nextInt(140));
+                boolean occupy = random.nextInt(4) != 0;
+                if (occupy) {
+                    calendar.occupy(ORIGIN + from, ORIGIN + to);
+                } else {
+                    calendar.release(ORIGIN + from, ORIGIN + to);
+                }
+                for (int night = from; night < to; night++) {
+                    sold[night] = occupy;
+                }
+            }
+            for (int i = 0; i < 200; i++) {
+                int from = random.nextInt(OccupancyCalendar.DAYS);
+                int to = Math.min(OccupancyCalendar.DAYS, from + 1 + random.nextInt(200));
+                boolean free = true;
+                for (int night = from; night < to; night++) {
+                    free &= !sold[night];
+                }
+                assertEquals(free, calendar.isFree(ORIGIN + from, ORIGIN + to), "[" + from + ", " + to + ")");
+            }
+        }
+    }
+
+    @Test
+    void checkOutDayIsNotOccupied() {
+        OccupancyCalendar calendar = new OccupancyCalendar(ORIGIN);
+        calendar.occupy(ORIGIN + 62, ORIGIN + 64);
+
+        assertTrue(calendar.isFree(ORIGIN + 64, ORIGIN + 70));
+        assertTrue(calendar.isFree(ORIGIN + 60, ORIGIN + 62));
+        assertFalse(calendar.isFree(ORIGIN + 63, ORIGIN + 65));
+        assertFalse(calendar.isFree(ORIGIN, ORIGIN + OccupancyCalendar.DAYS));
+    }
+
+    @Test
+    void staysLeavingTheWindowAreClipped() {
+        OccupancyCalendar calendar = new OccupancyCalendar(ORIGIN);
+        calendar.occupy(ORIGIN - 10, ORIGIN + 2);
+        calendar.occupy(ORIGIN + OccupancyCalendar.DAYS - 1, ORIGIN + OccupancyCalendar.DAYS + 30);
+
+        assertFalse(calendar.isFree(ORIGIN, ORIGIN + 1));
+        assertTrue(calendar.isFree(ORIGIN + 2, ORIGIN + OccupancyCalendar.DAYS - 1));
+        assertFalse(calendar.covers(ORIGIN - 1, ORIGIN + 1));
+        assertThrows(IllegalArgumentException.class, () -> calendar.isFree(ORIGIN + 5, ORIGIN + OccupancyCalendar.DAYS + 1));
+    }
+
+    @Test
+    void roundTripsThroughBytes() {
+        OccupancyCalendar calendar = new OccupancyCalendar(ORIGIN);
+        calendar.occupy(ORIGIN + 3, ORIGIN + 200);
+        calendar.occupy(ORIGIN + 700, ORIGIN + OccupancyCalendar.DAYS);
+
+        byte[] bytes = calendar.toBytes();
+        assertEquals(OccupancyCalendar.BYTES, bytes.length);
+        assertEquals(calendar, OccupancyCalendar.fromBytes(ORIGIN, bytes));
+        assertThrows(IllegalArgumentException.class, () -> OccupancyCalendar.fromBytes(ORIGIN, new byte[8]));
+    }
+
+    @Test
+    void windowReachesTwoYearsAhead() {
+        LocalDate day = LocalDate.of(2031, 7, 1);
+        long origin = OccupancyCalendar.originFor(day);
+
+        assertTrue(origin <= day.toEpochDay());
+        assertTrue(new OccupancyCalendar(origin).covers(day.toEpochDay(), day.plusYears(2).toEpochDay()));
+    }
+}
@@ -0,0 +1,53 @@
+package com.sb.hotel.booking.availability;
+
+import com.sb.hotel.booking.availability.RoomStays.Stay;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoomStaysTest {
+
+    @Test
+    void staysBlockOnlyTheNightsTheyCover() {
+        RoomStays stays = new RoomStays();
+        stays.add(new Stay(10, 13, 1));
+
+        assertFalse(stays.isFree(10, 13));
+        assertFalse(stays.isFree(12, 20));
+        assertFalse(stays.isFree(5, 11));
+        assertTrue(stays.isFree(13, 15), "check-in on the check-out day");
+        assertTrue(stays.isFree(7, 10), "check-out on the check-in day");
+    }
+
+    @Test
+    void longStaysAreFoundFromFarBehindTheRange() {
+        RoomStays stays = new RoomStays();
+        stays.add(new Stay(0, 2, 1));
+        stays.add(new Stay(10, 100, 2));
+
+        assertFalse(stays.isFree(95, 96));
+        assertTrue(stays.isFree(100, 101));
+    }
+
+    @Test
+    void removedStaysFreeTheirNights() {
+        RoomStays stays = new RoomStays();
+        Stay stay = new Stay(10, 13, 1);
+        stays.add(stay);
+        stays.remove(stay);
+
+        assertTrue(stays.isFree(10, 13));
+    }
+
+    @Test
+    void emptyAndReversedRangesAreFree() {
+        RoomStays stays = new RoomStays();
+        stays.add(new Stay(10, 40, 1));
+
+        assertTrue(stays.isFree(20, 20));
+        assertTrue(stays.isFree(20, 15));
+        // Further back than the longest stay, where the scanned slice itself would be reversed
+        assertTrue(stays.isFree(100, 5));
+    }
+}
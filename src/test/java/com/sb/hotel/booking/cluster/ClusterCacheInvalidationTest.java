@@ -0,0 +1,123 @@
+package com.sb.hotel.booking.cluster;
+
+import com.sb.hotel.booking.HotelBookingSystemApplication;
+import com.sb.hotel.booking.Response.RoomResponse;
+import com.sb.hotel.booking.repository.RoomRepository;
+import com.sb.hotel.booking.repository.projection.RoomSummaryView;
+import com.sb.hotel.booking.service.BookingService;
+import com.sb.hotel.booking.service.RoomService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.function.BooleanSupplier;
+
+import static com.sb.hotel.booking.BookingFixtures.booking;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs two nodes in one JVM, sharing a database and an in-process invalidation channel, and checks that
+ * a booking written on node A is visible through every cache of node B within {@link #BOUND}.
+ */
+class ClusterCacheInvalidationTest {
+
+    private static final Duration BOUND = Duration.ofSeconds(2);
+    private static final String ROOM_TYPE = "ClusterSuite";
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode(1, "create-drop");
+        nodeB = startNode(2, "none");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @Test
+    void bookingOnNodeAEvictsCachedAvailabilityOnNodeB() throws Exception {
+        Long roomId = nodeA.getBean(RoomService.class).addNewRoom(new MockMultipartFile("photo", new byte[0]),
+                "Cluster Hotel", ROOM_TYPE, BigDecimal.valueOf(150)).getId();
+        LocalDate checkIn = LocalDate.now().plusDays(10);
+        LocalDate checkOut = checkIn.plusDays(2);
+
+        RoomService roomServiceB = nodeB.getBean(RoomService.class);
+        RoomRepository roomRepositoryB = nodeB.getBean(RoomRepository.class);
+        Statistics statisticsB = nodeB.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        // Node B learns about the room from node A, then caches it in every layer
+        awaitOnNodeB(() -> searchFinds(roomServiceB, roomId, checkIn, checkOut));
+        assertFalse(roomServiceB.getRoomById(roomId).orElseThrow().isBooked());
+        long queryHits = statisticsB.getQueryCacheHitCount();
+        assertTrue(summariesInclude(roomRepositoryB, roomId, checkIn, checkOut));
+        assertTrue(summariesInclude(roomRepositoryB, roomId, checkIn, checkOut));
+        assertTrue(statisticsB.getQueryCacheHitCount() > queryHits, "availability query was not cached");
+        roomRepositoryB.findById(roomId).orElseThrow();
+        long entityHits = statisticsB.getSecondLevelCacheHitCount();
+        roomRepositoryB.findById(roomId).orElseThrow();
+        assertTrue(statisticsB.getSecondLevelCacheHitCount() > entityHits, "room was not in the second-level cache");
+
+        nodeA.getBean(BookingService.class).saveBooking(roomId, booking(checkIn, checkOut));
+
+        awaitOnNodeB(() -> !searchFinds(roomServiceB, roomId, checkIn, checkOut)
+                && !summariesInclude(roomRepositoryB, roomId, checkIn, checkOut)
+                && roomServiceB.getRoomById(roomId).orElseThrow().isBooked()
+                && roomRepositoryB.findById(roomId).orElseThrow().isBooked());
+    }
+
+    private static ConfigurableApplicationContext startNode(int nodeId, String ddlAuto) {
+        return new SpringApplicationBuilder(HotelBookingSystemApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:cluster;DB_CLOSE_DELAY=-1",
+                "--spring.r2dbc.url=r2dbc:h2:mem:///cluster?options=DB_CLOSE_DELAY=-1",
+                "--spring.jpa.hibernate.ddl-auto=" + ddlAuto,
+                "--reactive-api.enabled=false",
+                // Their ReactorResourceFactory disposes the JVM-wide Netty resources on close, which other test contexts use
+                "--spring.autoconfigure.exclude="
+                        + "org.springframework.boot.autoconfigure.web.reactive.function.client.ClientHttpConnectorAutoConfiguration,"
+                        + "org.springframework.boot.autoconfigure.web.reactive.function.client.WebClientAutoConfiguration",
+                "--booking.node-id=" + nodeId,
+                "--cache.invalidation.transport=in-process",
+                "--cache.invalidation.channel=cluster-test");
+    }
+
+    private static boolean searchFinds(RoomService roomService, Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        return roomService.getAvailableRoomResponses(checkIn, checkOut, ROOM_TYPE).stream()
+                .map(RoomResponse::getId).anyMatch(roomId::equals);
+    }
+
+    private static boolean summariesInclude(RoomRepository roomRepository, Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        return roomRepository.findAvailableRoomSummaries(checkIn, checkOut, ROOM_TYPE).stream()
+                .map(RoomSummaryView::getId).anyMatch(roomId::equals);
+    }
+
+    private static void awaitOnNodeB(BooleanSupplier condition) throws InterruptedException {
+        long started = System.nanoTime();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() - started > BOUND.toNanos()) {
+                fail("node B did not see the change within " + BOUND.toMillis() + " ms");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
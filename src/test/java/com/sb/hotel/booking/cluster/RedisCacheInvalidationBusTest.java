@@ -0,0 +1,69 @@
+package com.sb.hotel.booking.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sb.hotel.booking.event.BookingChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Round-trips messages through the Redis bus's wire format, using the application's ObjectMapper. No Redis
+ * server is needed: the bus only connects once it is started.
+ */
+@SpringBootTest
+class RedisCacheInvalidationBusTest {
+
+    @Autowired
+    private RedisConnectionFactory connectionFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private RedisCacheInvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+        bus = new RedisCacheInvalidationBus(connectionFactory, objectMapper, "round-trip-test");
+    }
+
+    @Test
+    void bookingChangesSurviveTheRoundTrip() throws Exception {
+        BookingChangedEvent event = new BookingChangedEvent(BookingChangedEvent.Type.UPDATED, 42L, 7L,
+                LocalDate.of(2030, 2, 28), LocalDate.of(2030, 3, 2), "new@example.com", "old@example.com");
+        CacheInvalidationMessage message = CacheInvalidationMessage.bookingChanged("node-1", event);
+
+        CacheInvalidationMessage received = roundTrip(message);
+
+        assertEquals(message, received);
+        assertEquals(event.getType(), received.toBookingChangedEvent().getType());
+        assertEquals(event.getCheckInDate(), received.toBookingChangedEvent().getCheckInDate());
+        assertEquals(event.getCheckOutDate(), received.toBookingChangedEvent().getCheckOutDate());
+        assertEquals(event.getPreviousGuestEmail(), received.toBookingChangedEvent().getPreviousGuestEmail());
+    }
+
+    @Test
+    void addedRoomsSurviveTheRoundTrip() throws Exception {
+        CacheInvalidationMessage message = CacheInvalidationMessage.roomAdded("node-2", 9L, "Suite Été");
+
+        assertEquals(message, roundTrip(message));
+    }
+
+    @Test
+    void malformedBodiesAreRejected() {
+        assertThrows(IOException.class, () -> bus.deserialize("{\"kind\":\"UNKNOWN\"}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // StringRedisTemplate sends the JSON as UTF-8, which is what the listener container hands back
+    private CacheInvalidationMessage roundTrip(CacheInvalidationMessage message) throws Exception {
+        return bus.deserialize(bus.serialize(message).getBytes(StandardCharsets.UTF_8));
+    }
+}
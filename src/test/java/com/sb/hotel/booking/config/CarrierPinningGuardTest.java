@@ -0,0 +1,76 @@
+package com.sb.hotel.booking.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fails the build when application code uses {@code synchronized}, which pins a virtual thread to its
+ * carrier for as long as the monitor is held (up to Java 23). Use a {@link java.util.concurrent.locks.Lock}
+ * instead.
+ */
+class CarrierPinningGuardTest {
+
+    @Test
+    void applicationCodeHasNoSynchronizedMethodsOrBlocks() throws IOException {
+        List<String> offenders = new ArrayList<>();
+        int scanned = 0;
+        Resource[] classes = new PathMatchingResourcePatternResolver()
+                .getResources("classpath*:com/sb/hotel/booking/**/*.class");
+        for (Resource resource : classes) {
+            if (!resource.getURL().getPath().contains("/target/classes/")) {
+                continue;
+            }
+            try (InputStream in = resource.getInputStream()) {
+                new ClassReader(in).accept(new SynchronizedFinder(offenders), ClassReader.SKIP_DEBUG);
+            }
+            scanned++;
+        }
+        assertTrue(scanned > 0, "no application classes found");
+        assertTrue(offenders.isEmpty(), "synchronized code pins virtual threads: " + offenders);
+    }
+
+    private static final class SynchronizedFinder extends ClassVisitor {
+
+        private final List<String> offenders;
+        private String className;
+
+        private SynchronizedFinder(List<String> offenders) {
+            super(Opcodes.ASM9);
+            this.offenders = offenders;
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            className = name.replace('/', '.');
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            String method = className + "." + name;
+            if (Modifier.isSynchronized(access)) {
+                offenders.add(method);
+            }
+            return new MethodVisitor(Opcodes.ASM9) {
+                @Override
+                public void visitInsn(int opcode) {
+                    if (opcode == Opcodes.MONITORENTER) {
+                        offenders.add(method);
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.sb.hotel.booking.controller;
+
+import com.sb.hotel.booking.models.BookedRoom;
+import com.sb.hotel.booking.service.BookingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BookingControllerTest {
+
+    private final BookingService bookingService = mock(BookingService.class);
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new BookingController(bookingService)).build();
+    }
+
+    @Test
+    void validBookingRequestIsBooked() throws Exception {
+        when(bookingService.saveBooking(eq(1L), any(BookedRoom.class), isNull())).thenReturn("ABC123");
+        LocalDate checkIn = LocalDate.now().plusDays(10);
+
+        mockMvc.perform(post("/bookings/room/booking").param("roomId", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body("\"" + checkIn + "\"", "\"" + checkIn.plusDays(2) + "\"", "guest@example.com")))
+                .andExpect(status().isCreated())
+                .andExpect(content().string("ABC123"));
+        verify(bookingService).saveBooking(eq(1L), any(BookedRoom.class), isNull());
+    }
+
+    @Test
+    void bookingRequestWithoutDatesIsRejected() throws Exception {
+        mockMvc.perform(post("/bookings/room/booking").param("roomId", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body("null", "null", "guest@example.com")))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("Check-in date cannot be null")));
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void bookingRequestWithInvalidEmailIsRejected() throws Exception {
+        LocalDate checkIn = LocalDate.now().plusDays(10);
+
+        mockMvc.perform(post("/bookings/room/booking").param("roomId", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body("\"" + checkIn + "\"", "\"" + checkIn.plusDays(2) + "\"", "not-an-email")))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("Invalid email format")));
+        verifyNoInteractions(bookingService);
+    }
+
+    private static String body(String checkIn, String checkOut, String email) {
+        return "{\"checkInDate\":" + checkIn + ",\"checkOutDate\":" + checkOut
+                + ",\"guestFullName\":\"Test Guest\",\"guestEmail\":\"" + email + "\""
+                + ",\"numOfAdults\":2,\"numOfChildren\":0,\"totalNumOfGuest\":2}";
+    }
+}
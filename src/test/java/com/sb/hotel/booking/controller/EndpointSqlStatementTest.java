@@ -0,0 +1,88 @@
+package com.sb.hotel.booking.controller;
+
+import com.sb.hotel.booking.availability.RoomAvailabilityIndex;
+import com.sb.hotel.booking.metrics.HotelMetrics;
+import com.sb.hotel.booking.metrics.MaxSqlStatements;
+import com.sb.hotel.booking.metrics.SqlStatementMetricsFilter;
+import com.sb.hotel.booking.repository.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static com.sb.hotel.booking.BookingFixtures.createRoom;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Upper bounds on the SQL statements of the hot endpoints. A failure lists the statements that were made;
+ * raise a bound only for a change that needs the extra statements.
+ */
+@SpringBootTest
+class EndpointSqlStatementTest {
+
+    private static final String ROOM_TYPE = "BoundedSuite";
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private HotelMetrics metrics;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex;
+
+    private MockMvc mockMvc;
+    private Long roomId;
+    private LocalDate checkIn;
+
+    @BeforeEach
+    void setUp() {
+        // The filter as in the dev profile, so the header can be checked too
+        mockMvc = MockMvcBuilders.webAppContextSetup(context)
+                .addFilters(new SqlStatementMetricsFilter(metrics, true))
+                .build();
+        for (int i = 0; i < 3; i++) {
+            roomId = createRoom(roomRepository, ROOM_TYPE, BigDecimal.valueOf(100 + i));
+        }
+        availabilityIndex.rebuild();
+        checkIn = LocalDate.now().plusDays(30 + roomId % 300);
+    }
+
+    @Test
+    @MaxSqlStatements(2)
+    void availableRooms() throws Exception {
+        mockMvc.perform(get("/api/available-rooms")
+                        .param("checkInDate", checkIn.toString())
+                        .param("checkOutDate", checkIn.plusDays(2).toString())
+                        .param("roomType", ROOM_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SqlStatementMetricsFilter.HEADER, "2"));
+    }
+
+    // 9, plus a fetch from each pooled sequence (bookings, outbox) for the one booking in 50 that needs one
+    @Test
+    @MaxSqlStatements(11)
+    void booking() throws Exception {
+        mockMvc.perform(post("/bookings/room/booking")
+                        .param("roomId", roomId.toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"checkInDate\":\"" + checkIn + "\",\"checkOutDate\":\"" + checkIn.plusDays(2) + "\","
+                                + "\"guestFullName\":\"Bounded Guest\",\"guestEmail\":\"bounded@example.com\","
+                                + "\"numOfAdults\":1,\"numOfChildren\":0,\"totalNumOfGuest\":1}"))
+                .andExpect(status().isCreated())
+                .andExpect(header().exists(SqlStatementMetricsFilter.HEADER));
+    }
+}
@@ -0,0 +1,118 @@
+package com.sb.hotel.booking.controller;
+
+import com.sb.hotel.booking.Response.RoomResponse;
+import com.sb.hotel.booking.availability.RoomAvailabilityIndex;
+import com.sb.hotel.booking.config.ReactiveApiServer;
+import com.sb.hotel.booking.repository.RoomRepository;
+import com.sb.hotel.booking.service.BookingService;
+import com.sb.hotel.booking.service.RoomService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.sb.hotel.booking.BookingFixtures.booking;
+import static com.sb.hotel.booking.BookingFixtures.createRoom;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class RoomSearchHandlerTest {
+
+    private static final String ROOM_TYPE = "ReactiveSuite";
+
+    @Autowired
+    private ReactiveApiServer reactiveApiServer;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + reactiveApiServer.getPort()).build();
+    }
+
+    @Test
+    void streamsTheSameRoomsAsTheBlockingSearch() {
+        LocalDate checkIn = LocalDate.now().plusDays(20);
+        LocalDate checkOut = checkIn.plusDays(3);
+        Long booked = createRoom(roomRepository, ROOM_TYPE);
+        createRoom(roomRepository, ROOM_TYPE);
+        createRoom(roomRepository, ROOM_TYPE);
+        availabilityIndex.rebuild();
+        bookingService.saveBooking(booked, booking(checkIn.plusDays(1), checkOut.plusDays(1)));
+
+        List<Long> expected = roomService.getAvailableRoomResponses(checkIn, checkOut, ROOM_TYPE).stream()
+                .map(RoomResponse::getId).toList();
+
+        // Index path
+        assertEquals(expected, streamedIds(checkIn, checkOut));
+        assertFalse(expected.contains(booked));
+
+        // SQL path, as the index cannot answer searches starting before the day it was built
+        LocalDate pastCheckIn = LocalDate.now().minusDays(400);
+        List<Long> expectedPast = roomService.getAvailableRoomResponses(pastCheckIn, pastCheckIn.plusDays(2), ROOM_TYPE)
+                .stream().map(RoomResponse::getId).toList();
+        assertEquals(expectedPast, streamedIds(pastCheckIn, pastCheckIn.plusDays(2)));
+        assertTrue(expectedPast.contains(booked));
+    }
+
+    @Test
+    void streamsServerSentEventsWhenAsked() {
+        createRoom(roomRepository, ROOM_TYPE);
+        LocalDate checkIn = LocalDate.now().plusDays(5);
+
+        client.get().uri(uri -> uri.path("/api/v2/available-rooms")
+                        .queryParam("checkInDate", checkIn)
+                        .queryParam("checkOutDate", checkIn.plusDays(1))
+                        .queryParam("roomType", ROOM_TYPE).build())
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .expectBody(String.class).value(body -> assertTrue(body.startsWith("data:{\"id\":")));
+    }
+
+    @Test
+    void rejectsInvalidDates() {
+        client.get().uri("/api/v2/available-rooms?checkInDate=2030-01-05&checkOutDate=2030-01-01&roomType=" + ROOM_TYPE)
+                .exchange()
+                .expectStatus().isBadRequest();
+        client.get().uri("/api/v2/available-rooms?checkInDate=tomorrow&checkOutDate=2030-01-01&roomType=" + ROOM_TYPE)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    private List<Long> streamedIds(LocalDate checkIn, LocalDate checkOut) {
+        return client.get().uri(uri -> uri.path("/api/v2/available-rooms")
+                        .queryParam("checkInDate", checkIn)
+                        .queryParam("checkOutDate", checkOut)
+                        .queryParam("roomType", ROOM_TYPE).build())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(RoomResponse.class)
+                .getResponseBody()
+                .map(RoomResponse::getId)
+                .collectList()
+                .block();
+    }
+}
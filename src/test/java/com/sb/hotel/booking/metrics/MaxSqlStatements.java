@@ -0,0 +1,23 @@
+package com.sb.hotel.booking.metrics;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fails the test when its body makes more SQL statements than allowed. Only statements made on the test's
+ * own thread count, including those of MockMvc requests; {@code @BeforeEach} methods do not.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(SqlStatementBoundExtension.class)
+public @interface MaxSqlStatements {
+
+    /**
+     * The most statements the test may make.
+     */
+    int value();
+}
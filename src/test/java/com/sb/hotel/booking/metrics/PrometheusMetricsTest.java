@@ -0,0 +1,97 @@
+package com.sb.hotel.booking.metrics;
+
+import com.sb.hotel.booking.availability.RoomAvailabilityIndex;
+import com.sb.hotel.booking.repository.RoomRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static com.sb.hotel.booking.BookingFixtures.createRoom;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Own database and invalidation channel: this context runs next to the shared one and must not touch its data
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:metrics;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.url=r2dbc:h2:mem:///metrics?options=DB_CLOSE_DELAY=-1",
+        "reactive-api.enabled=false",
+        "cache.invalidation.channel=metrics-test",
+        "management.endpoints.web.exposure.include=prometheus"})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class PrometheusMetricsTest {
+
+    private static final String ROOM_TYPE = "MetricsSuite";
+    private static final String OPEN_METRICS = "application/openmetrics-text;version=1.0.0";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private HotelMetrics hotelMetrics;
+
+    @Test
+    void hotPathsAreScrapedWithTraceExemplars() throws Exception {
+        Long roomId = createRoom(roomRepository, ROOM_TYPE);
+        availabilityIndex.rebuild();
+
+        LocalDate checkIn = LocalDate.now().plusDays(10);
+        mockMvc.perform(get("/api/available-rooms").param("checkInDate", checkIn.toString())
+                        .param("checkOutDate", checkIn.plusDays(2).toString()).param("roomType", ROOM_TYPE))
+                .andExpect(status().isOk());
+        String booking = "{\"checkInDate\":\"" + checkIn + "\",\"checkOutDate\":\"" + checkIn.plusDays(2) + "\","
+                + "\"guestFullName\":\"Metrics Guest\",\"guestEmail\":\"metrics@example.com\","
+                + "\"numOfAdults\":1,\"numOfChildren\":0,\"totalNumOfGuest\":1}";
+        mockMvc.perform(post("/bookings/room/booking").param("roomId", roomId.toString())
+                        .contentType(MediaType.APPLICATION_JSON).content(booking))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/bookings/room/booking").param("roomId", roomId.toString())
+                        .contentType(MediaType.APPLICATION_JSON).content(booking))
+                .andExpect(status().isConflict());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus").accept(OPEN_METRICS))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(hasLine(scrape, "hotel_availability_search_seconds_bucket{", "roomType=\"" + ROOM_TYPE + "\"", "source=\"index\""));
+        assertTrue(hasLine(scrape, "hotel_bookings_total{", "operation=\"create\"", "outcome=\"success\"", "} 1.0"));
+        assertTrue(hasLine(scrape, "hotel_bookings_total{", "operation=\"create\"", "outcome=\"conflict\"", "} 1.0"));
+        assertTrue(hasLine(scrape, "hotel_http_server_statements_count{", "uri=\"/bookings/room/booking\""));
+        assertTrue(hasLine(scrape, "hotel_service_seconds_count{", "BookingServiceImpl\"", "method=\"saveBooking\""));
+        assertTrue(hasLine(scrape, "http_server_requests_seconds_bucket{", "uri=\"/api/available-rooms\""));
+        assertTrue(hasLine(scrape, "hikaricp_connections_acquire_seconds_bucket{"));
+        // A bucket's exemplar points at the trace of a request it counted
+        assertTrue(hasLine(scrape, "http_server_requests_seconds_bucket{", "trace_id=\""));
+    }
+
+    @Test
+    void onlyKnownRoomTypesAreTagged() {
+        createRoom(roomRepository, "TaggedSuite");
+        availabilityIndex.rebuild();
+
+        assertEquals("TaggedSuite", hotelMetrics.roomTypeTag("TaggedSuite"));
+        assertEquals(HotelMetrics.OTHER_ROOM_TYPE, hotelMetrics.roomTypeTag("Suite"));
+        assertEquals(HotelMetrics.OTHER_ROOM_TYPE, hotelMetrics.roomTypeTag("NoSuchType"));
+        assertEquals(HotelMetrics.ANY_ROOM_TYPE, hotelMetrics.roomTypeTag(" "));
+    }
+
+    private static boolean hasLine(String scrape, String prefix, String... parts) {
+        return scrape.lines().anyMatch(line -> line.startsWith(prefix) && Arrays.stream(parts).allMatch(line::contains));
+    }
+}
@@ -0,0 +1,31 @@
+package com.sb.hotel.booking.metrics;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.opentest4j.AssertionFailedError;
+
+import java.util.List;
+
+/**
+ * Counts the SQL statements of a test annotated with {@link MaxSqlStatements} and fails it when there are
+ * more than allowed, listing them.
+ */
+public class SqlStatementBoundExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        SqlStatementCounter.start(true);
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        List<String> statements = SqlStatementCounter.statements();
+        int count = SqlStatementCounter.stop();
+        int max = context.getRequiredTestMethod().getAnnotation(MaxSqlStatements.class).value();
+        if (count > max && context.getExecutionException().isEmpty()) {
+            throw new AssertionFailedError("Expected at most " + max + " SQL statements but there were " + count + ":\n"
+                    + String.join("\n", statements), max, count);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.sb.hotel.booking.service;
+
+import com.sb.hotel.booking.Response.AvailabilityCalendar;
+import com.sb.hotel.booking.Response.RoomResponse;
+import com.sb.hotel.booking.availability.RoomAvailabilityIndex;
+import com.sb.hotel.booking.repository.RoomRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.sb.hotel.booking.BookingFixtures.booking;
+import static com.sb.hotel.booking.BookingFixtures.createRoom;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class AvailabilityCalendarTest {
+
+    private static final String ROOM_TYPE = "CalendarRoom";
+    // Room types are matched by substring, so this one must not contain ROOM_TYPE
+    private static final String SOLD_OUT_ROOM_TYPE = "SoldOutRoom";
+    private static final LocalDate FROM = LocalDate.now().plusDays(90);
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex;
+
+    @Test
+    void calendarMatchesOneSearchPerCheckInDate() {
+        Long cheap = createRoom(roomRepository, ROOM_TYPE, BigDecimal.valueOf(80));
+        Long middle = createRoom(roomRepository, ROOM_TYPE, BigDecimal.valueOf(100));
+        Long dear = createRoom(roomRepository, ROOM_TYPE, BigDecimal.valueOf(150));
+        availabilityIndex.rebuild();
+        book(cheap, 2, 5);
+        book(cheap, 9, 10);
+        book(middle, 0, 3);
+        book(middle, 6, 8);
+        book(dear, 4, 12);
+        LocalDate to = FROM.plusDays(13);
+
+        AvailabilityCalendar calendar = roomService.getAvailabilityCalendar(FROM, to, 3, ROOM_TYPE);
+
+        assertEquals(14, calendar.getDays().size());
+        for (AvailabilityCalendar.Day day : calendar.getDays()) {
+            List<RoomResponse> rooms = roomService.getAvailableRoomResponses(day.getCheckInDate(), day.getCheckOutDate(), ROOM_TYPE);
+            assertEquals(rooms.size(), day.getAvailableRooms(), "rooms free from " + day.getCheckInDate());
+            Long cheapest = rooms.stream().min(Comparator.comparing(RoomResponse::getRoomPrice)).map(RoomResponse::getId).orElse(null);
+            assertEquals(cheapest, day.getCheapestRoomId(), "cheapest room from " + day.getCheckInDate());
+        }
+
+        AvailabilityCalendar.Day first = calendar.getDays().get(0);
+        assertEquals(dear, first.getCheapestRoomId());
+        assertEquals(0, BigDecimal.valueOf(450).compareTo(first.getCheapestTotalPrice()));
+        AvailabilityCalendar.Day sixth = calendar.getDays().get(5);
+        assertEquals(cheap, sixth.getCheapestRoomId());
+        assertEquals(0, BigDecimal.valueOf(240).compareTo(sixth.getCheapestTotalPrice()));
+    }
+
+    @Test
+    void dayWithoutFreeRoomsHasNoPrice() {
+        Long roomId = createRoom(roomRepository, SOLD_OUT_ROOM_TYPE, BigDecimal.valueOf(90));
+        book(roomId, 0, 20);
+
+        AvailabilityCalendar.Day day = roomService.getAvailabilityCalendar(FROM, FROM, 1, SOLD_OUT_ROOM_TYPE)
+                .getDays().get(0);
+        assertEquals(0, day.getAvailableRooms());
+        assertNull(day.getCheapestRoomId());
+        assertNull(day.getCheapestTotalPrice());
+    }
+
+    @Test
+    void rejectsInvalidWindows() {
+        assertThrows(IllegalArgumentException.class, () -> roomService.getAvailabilityCalendar(FROM, FROM.minusDays(1), 3, ROOM_TYPE));
+        assertThrows(IllegalArgumentException.class, () -> roomService.getAvailabilityCalendar(FROM, FROM.plusDays(400), 3, ROOM_TYPE));
+        assertThrows(IllegalArgumentException.class, () -> roomService.getAvailabilityCalendar(FROM, FROM.plusDays(7), 0, ROOM_TYPE));
+    }
+
+    private void book(Long roomId, int firstNight, int checkOutDay) {
+        bookingService.saveBooking(roomId, booking(FROM.plusDays(firstNight), FROM.plusDays(checkOutDay)));
+    }
+}
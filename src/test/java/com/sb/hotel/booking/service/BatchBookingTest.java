@@ -0,0 +1,109 @@
+package com.sb.hotel.booking.service;
+
+import com.sb.hotel.booking.exception.RoomNotAvailableException;
+import com.sb.hotel.booking.repository.BookingRepository;
+import com.sb.hotel.booking.repository.RoomRepository;
+import com.sb.hotel.booking.request.BatchBookingItem;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.sb.hotel.booking.BookingFixtures.createRoom;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BatchBookingTest {
+
+    private static final int STAYS = 200;
+    private static final LocalDate START = LocalDate.now().plusDays(10);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void conflictingItemRollsBackTheWholeBatch() {
+        Long first = createRoom(roomRepository, "BatchRollback");
+        Long second = createRoom(roomRepository, "BatchRollback");
+        bookingService.saveBooking(second, item(second, START.plusDays(2), START.plusDays(4), 0).toBookedRoom());
+
+        List<BatchBookingItem> items = List.of(
+                item(first, START, START.plusDays(3), 1),
+                item(second, START, START.plusDays(3), 2));
+
+        assertThrows(RoomNotAvailableException.class, () -> bookingService.saveBookings(items));
+        assertTrue(bookingRepository.findByRoomId(first).isEmpty());
+        assertEquals(1, bookingRepository.findByRoomId(second).size());
+    }
+
+    @Test
+    void overlappingItemsWithinTheBatchAreRejected() {
+        Long roomId = createRoom(roomRepository, "BatchSelfOverlap");
+        List<BatchBookingItem> items = List.of(
+                item(roomId, START, START.plusDays(5), 1),
+                item(roomId, START.plusDays(4), START.plusDays(6), 2));
+
+        assertThrows(RoomNotAvailableException.class, () -> bookingService.saveBookings(items));
+        assertTrue(bookingRepository.findByRoomId(roomId).isEmpty());
+    }
+
+    @Test
+    void batchUsesFarFewerStatementsThanSingleBookings() {
+        Long singleRoom = createRoom(roomRepository, "BatchSingles");
+        Long batchRoom = createRoom(roomRepository, "BatchBlock");
+
+        statistics.clear();
+        for (int i = 0; i < STAYS; i++) {
+            bookingService.saveBooking(singleRoom, stay(singleRoom, i).toBookedRoom());
+        }
+        long singleStatements = statistics.getPrepareStatementCount();
+
+        List<BatchBookingItem> items = new ArrayList<>();
+        for (int i = 0; i < STAYS; i++) {
+            items.add(stay(batchRoom, i));
+        }
+        statistics.clear();
+        List<String> codes = bookingService.saveBookings(items);
+        long batchStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(STAYS, codes.size());
+        assertEquals(STAYS, bookingRepository.findByRoomId(batchRoom).size());
+        assertTrue(batchStatements * 10 < singleStatements,
+                "batch used " + batchStatements + " statements, singles used " + singleStatements);
+    }
+
+    private BatchBookingItem stay(Long roomId, int index) {
+        LocalDate checkIn = START.plusDays(2L * index);
+        return item(roomId, checkIn, checkIn.plusDays(1), index);
+    }
+
+    private BatchBookingItem item(Long roomId, LocalDate checkIn, LocalDate checkOut, int guest) {
+        return new BatchBookingItem(roomId, checkIn, checkOut, "Batch Guest " + guest,
+                "batch" + guest + "@example.com", 2, 0, 2);
+    }
+}
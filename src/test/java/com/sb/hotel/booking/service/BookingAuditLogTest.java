@@ -0,0 +1,95 @@
+package com.sb.hotel.booking.service;
+
+import com.sb.hotel.booking.audit.BookingAuditRecord;
+import com.sb.hotel.booking.audit.EventSink;
+import com.sb.hotel.booking.audit.OutboxRelay;
+import com.sb.hotel.booking.event.BookingChangedEvent;
+import com.sb.hotel.booking.repository.BookingOutboxRepository;
+import com.sb.hotel.booking.repository.BookingRepository;
+import com.sb.hotel.booking.repository.RoomRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.sb.hotel.booking.BookingFixtures.booking;
+import static com.sb.hotel.booking.BookingFixtures.createRoom;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BookingAuditLogTest {
+
+    private static final LocalDate START = LocalDate.now().plusDays(200);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingOutboxRepository outboxRepository;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private EventSink sink;
+
+    @Test
+    void everyCommittedChangeIsRelayedToTheLog() throws IOException {
+        Long roomId = createRoom(roomRepository, "AuditRoom");
+        String code = bookingService.saveBooking(roomId, booking(START, START.plusDays(3)));
+        Long bookingId = bookingRepository.findByBookingConfirmationCode(code).orElseThrow().getBookingId();
+        assertTrue(bookingService.updateBooking(bookingId, booking(START.plusDays(1), START.plusDays(4))));
+        assertTrue(bookingService.cancelBooking(bookingId));
+
+        relay.relay();
+
+        assertEquals(0, outboxRepository.count());
+        List<BookingAuditRecord> records = recordsOf(bookingId);
+        assertEquals(List.of(BookingChangedEvent.Type.CREATED, BookingChangedEvent.Type.UPDATED, BookingChangedEvent.Type.CANCELLED),
+                records.stream().map(BookingAuditRecord::type).toList());
+        assertEquals(START.plusDays(1), records.get(1).checkInDate());
+        assertEquals(roomId, records.get(2).roomId());
+    }
+
+    @Test
+    void rejectedChangesAreNotLogged() throws IOException {
+        Long roomId = createRoom(roomRepository, "AuditRoom");
+        String code = bookingService.saveBooking(roomId, booking(START, START.plusDays(3)));
+        Long bookingId = bookingRepository.findByBookingConfirmationCode(code).orElseThrow().getBookingId();
+        // Overlaps the first booking, so its transaction rolls back with the outbox row in it
+        assertThrows(RuntimeException.class, () -> bookingService.saveBooking(roomId, booking(START.plusDays(1), START.plusDays(4))));
+
+        relay.relay();
+
+        List<BookingAuditRecord> records = new ArrayList<>();
+        sink.replay(record -> {
+            if (roomId.equals(record.roomId())) {
+                records.add(record);
+            }
+        });
+        assertEquals(1, records.size());
+        assertEquals(bookingId, records.get(0).bookingId());
+    }
+
+    private List<BookingAuditRecord> recordsOf(Long bookingId) throws IOException {
+        List<BookingAuditRecord> records = new ArrayList<>();
+        sink.replay(record -> {
+            if (record.bookingId() == bookingId) {
+                records.add(record);
+            }
+        });
+        return records;
+    }
+}
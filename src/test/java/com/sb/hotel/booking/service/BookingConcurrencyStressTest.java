@@ -0,0 +1,108 @@
+package com.sb.hotel.booking.service;
+
+import com.sb.hotel.booking.exception.RoomNotAvailableException;
+import com.sb.hotel.booking.models.BookedRoom;
+import com.sb.hotel.booking.repository.BookingRepository;
+import com.sb.hotel.booking.repository.RoomRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.sb.hotel.booking.BookingFixtures.booking;
+import static com.sb.hotel.booking.BookingFixtures.createRoom;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@SpringBootTest
+class BookingConcurrencyStressTest {
+
+    private static final int ROOMS = 8;
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS = 2000;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void parallelBookingsNeverOverlap() throws Exception {
+        List<Long> roomIds = new ArrayList<>();
+        for (int i = 0; i < ROOMS; i++) {
+            roomIds.add(createRoom(roomRepository, "StressRoom"));
+        }
+
+        LocalDate start = LocalDate.now().plusDays(1);
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+        for (int i = 0; i < ATTEMPTS; i++) {
+            Random random = new Random(i);
+            Long roomId = roomIds.get(random.nextInt(ROOMS));
+            LocalDate checkIn = start.plusDays(random.nextInt(365));
+            LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(5));
+            int attempt = i;
+            pool.execute(() -> {
+                try {
+                    go.await();
+                    bookingService.saveBooking(roomId, booking(checkIn, checkOut, "stress" + attempt + "@example.com"));
+                    booked.incrementAndGet();
+                } catch (RoomNotAvailableException e) {
+                    conflicts.incrementAndGet();
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                }
+            });
+        }
+
+        long started = System.nanoTime();
+        go.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES), "booking attempts did not finish");
+        long elapsedNanos = System.nanoTime() - started;
+        log.info("{} booking attempts on {} threads in {} ms ({} attempts/s): {} booked, {} conflicts",
+                ATTEMPTS, THREADS, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                Math.round(ATTEMPTS * 1e9 / elapsedNanos), booked.get(), conflicts.get());
+
+        assertEquals(0, errors.get());
+        assertEquals(ATTEMPTS, booked.get() + conflicts.get());
+        // About three nights each over 8 rooms and a year: both outcomes occur, so both paths were raced
+        assertTrue(booked.get() > 0, "no attempt was booked");
+        assertTrue(conflicts.get() > 0, "no attempt conflicted");
+
+        int stored = 0;
+        for (Long roomId : roomIds) {
+            List<BookedRoom> bookings = new ArrayList<>(bookingRepository.findByRoomId(roomId));
+            bookings.sort(Comparator.comparing(BookedRoom::getCheckInDate));
+            for (int i = 1; i < bookings.size(); i++) {
+                BookedRoom previous = bookings.get(i - 1);
+                BookedRoom next = bookings.get(i);
+                assertFalse(next.getCheckInDate().isBefore(previous.getCheckOutDate()),
+                        "bookings " + previous.getBookingId() + " and " + next.getBookingId() + " overlap");
+            }
+            stored += bookings.size();
+        }
+        assertEquals(booked.get(), stored);
+    }
+}
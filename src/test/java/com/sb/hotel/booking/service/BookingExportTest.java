@@ -0,0 +1,68 @@
+package com.sb.hotel.booking.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sb.hotel.booking.repository.RoomRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.sb.hotel.booking.BookingFixtures.booking;
+import static com.sb.hotel.booking.BookingFixtures.createRoom;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BookingExportTest {
+
+    private static final LocalDate START = LocalDate.now().plusDays(720);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void exportsEveryBookingAsOneJsonObjectPerLine() throws IOException {
+        Long roomId = createRoom(roomRepository, "ExportRoom");
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            LocalDate checkIn = START.plusDays(i * 2L);
+            codes.add(bookingService.saveBooking(roomId, booking(checkIn, checkIn.plusDays(2), "export" + i + "@example.com")));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bookingService.exportBookings(out);
+
+        String export = out.toString(StandardCharsets.UTF_8);
+        assertTrue(export.endsWith("\n"));
+        List<JsonNode> exported = new ArrayList<>();
+        long previousId = Long.MIN_VALUE;
+        for (String line : export.split("\n")) {
+            JsonNode booking = objectMapper.readTree(line);
+            assertTrue(booking.get("bookingId").asLong() > previousId, "bookings are exported in ID order");
+            previousId = booking.get("bookingId").asLong();
+            if (codes.contains(booking.get("bookingConfirmationCode").asText())) {
+                exported.add(booking);
+            }
+        }
+
+        assertEquals(3, exported.size());
+        JsonNode first = exported.get(0);
+        assertEquals(roomId, first.get("roomId").asLong());
+        assertEquals(START.toString(), first.get("checkInDate").asText());
+        assertEquals(START.plusDays(2).toString(), first.get("checkOutDate").asText());
+        assertEquals("export0@example.com", first.get("guestEmail").asText());
+    }
+}
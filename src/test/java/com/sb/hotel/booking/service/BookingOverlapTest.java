@@ -0,0 +1,77 @@
+package com.sb.hotel.booking.service;
+
+import com.sb.hotel.booking.exception.RoomNotAvailableException;
+import com.sb.hotel.booking.repository.BookingRepository;
+import com.sb.hotel.booking.repository.RoomRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+
+import static com.sb.hotel.booking.BookingFixtures.booking;
+import static com.sb.hotel.booking.BookingFixtures.createRoom;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BookingOverlapTest {
+
+    private static final LocalDate START = LocalDate.now().plusDays(120);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void overlappingStaysAreRejectedAndBackToBackStaysAccepted() {
+        Long roomId = createRoom(roomRepository, "OverlapRoom");
+        bookingService.saveBooking(roomId, booking(START, START.plusDays(3)));
+
+        assertThrows(RoomNotAvailableException.class,
+                () -> bookingService.saveBooking(roomId, booking(START.plusDays(2), START.plusDays(4))));
+        assertThrows(RoomNotAvailableException.class,
+                () -> bookingService.saveBooking(roomId, booking(START.minusDays(1), START.plusDays(5))));
+        bookingService.saveBooking(roomId, booking(START.plusDays(3), START.plusDays(5)));
+        bookingService.saveBooking(roomId, booking(START.minusDays(2), START));
+
+        assertEquals(3, bookingRepository.findByRoomId(roomId).size());
+    }
+
+    @Test
+    void anUpdatedBookingOnlyConflictsWithOtherBookings() {
+        Long roomId = createRoom(roomRepository, "OverlapRoom");
+        String code = bookingService.saveBooking(roomId, booking(START, START.plusDays(3)));
+        bookingService.saveBooking(roomId, booking(START.plusDays(5), START.plusDays(7)));
+        Long bookingId = bookingRepository.findByBookingConfirmationCode(code).orElseThrow().getBookingId();
+
+        // Overlaps its own old dates only
+        assertTrue(bookingService.updateBooking(bookingId, booking(START.plusDays(1), START.plusDays(4))));
+        assertThrows(RoomNotAvailableException.class,
+                () -> bookingService.updateBooking(bookingId, booking(START.plusDays(4), START.plusDays(6))));
+    }
+
+    @Test
+    void bookingDoesNotLoadTheRoomsBookings() {
+        Long roomId = createRoom(roomRepository, "OverlapRoom");
+        bookingService.saveBooking(roomId, booking(START, START.plusDays(1)));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long collectionsLoaded = statistics.getCollectionLoadCount();
+
+        bookingService.saveBooking(roomId, booking(START.plusDays(1), START.plusDays(2)));
+
+        assertEquals(collectionsLoaded, statistics.getCollectionLoadCount());
+    }
+}
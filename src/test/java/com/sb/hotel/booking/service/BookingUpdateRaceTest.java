@@ -0,0 +1,184 @@
+package com.sb.hotel.booking.service;
+
+import com.sb.hotel.booking.availability.OccupancyCalendar;
+import com.sb.hotel.booking.exception.RoomNotAvailableException;
+import com.sb.hotel.booking.models.BookedRoom;
+import com.sb.hotel.booking.repository.BookingRepository;
+import com.sb.hotel.booking.repository.RoomDayInventoryRepository;
+import com.sb.hotel.booking.repository.RoomOccupancyRepository;
+import com.sb.hotel.booking.repository.RoomRepository;
+import com.sb.hotel.booking.service.Impl.RoomLocks;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.sb.hotel.booking.BookingFixtures.booking;
+import static com.sb.hotel.booking.BookingFixtures.createRoom;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Updates that race a move of the same booking to another room. An update must lock the room the booking is
+ * in once its locks are held, not the room it first saw the booking in, or it would change the other room
+ * without holding it.
+ */
+@SpringBootTest
+class BookingUpdateRaceTest {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS = 300;
+    private static final int WINDOW = 6;
+    private static final LocalDate START = LocalDate.now().plusDays(400);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private RoomOccupancyRepository occupancyRepository;
+
+    @Autowired
+    private RoomDayInventoryRepository inventoryRepository;
+
+    @Autowired
+    private RoomLocks roomLocks;
+
+    @Test
+    void anUpdateQueuedBehindAMoveFollowsTheBookingToItsNewRoom() throws Exception {
+        Long first = createRoom(roomRepository, "UpdateRace");
+        Long second = createRoom(roomRepository, "UpdateRace");
+        String code = bookingService.saveBooking(first, booking(START, START.plusDays(2)));
+        Long bookingId = bookingRepository.findByBookingConfirmationCode(code).orElseThrow().getBookingId();
+
+        // Names no room, so it applies to whichever room the booking is in
+        AtomicBoolean updated = new AtomicBoolean();
+        Thread update = new Thread(() -> updated.set(
+                bookingService.updateBooking(bookingId, booking(START.plusDays(1), START.plusDays(3)))));
+        roomLocks.withRoomLock(first, () -> {
+            update.start();
+            awaitQueuedOnRoomLock(update);
+            // Moves the booking while the update waits, having already seen it in the first room
+            BookedRoom move = booking(START, START.plusDays(2));
+            move.setRoom(roomRepository.getReferenceById(second));
+            assertTrue(bookingService.updateBooking(bookingId, move));
+            return null;
+        });
+        update.join(TimeUnit.SECONDS.toMillis(10));
+
+        assertFalse(update.isAlive(), "the update did not finish");
+        assertTrue(updated.get());
+        assertTrue(bookingRepository.findByRoomId(first).isEmpty());
+        BookedRoom stored = bookingRepository.findByRoomId(second).get(0);
+        assertEquals(bookingId, stored.getBookingId());
+        assertEquals(START.plusDays(1), stored.getCheckInDate());
+        assertConsistent(first);
+        assertConsistent(second);
+    }
+
+    @Test
+    void movesRacingBookingsInBothRoomsKeepThemConsistent() throws Exception {
+        List<Long> roomIds = List.of(createRoom(roomRepository, "UpdateRace"), createRoom(roomRepository, "UpdateRace"));
+        String code = bookingService.saveBooking(roomIds.get(0), booking(START, START.plusDays(2)));
+        Long movingId = bookingRepository.findByBookingConfirmationCode(code).orElseThrow().getBookingId();
+
+        AtomicInteger moved = new AtomicInteger();
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int i = 0; i < ATTEMPTS; i++) {
+                Random random = new Random(i);
+                Long roomId = roomIds.get(random.nextInt(roomIds.size()));
+                LocalDate checkIn = START.plusDays(random.nextInt(WINDOW - 1));
+                LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(2));
+                boolean move = random.nextBoolean();
+                pool.execute(() -> {
+                    try {
+                        go.await();
+                        if (move) {
+                            BookedRoom update = booking(checkIn, checkOut);
+                            update.setRoom(roomRepository.getReferenceById(roomId));
+                            if (bookingService.updateBooking(movingId, update)) {
+                                moved.incrementAndGet();
+                            }
+                        } else {
+                            String bookedCode = bookingService.saveBooking(roomId, booking(checkIn, checkOut));
+                            booked.incrementAndGet();
+                            bookingService.cancelBooking(bookingRepository.findByBookingConfirmationCode(bookedCode)
+                                    .orElseThrow().getBookingId());
+                        }
+                    } catch (RoomNotAvailableException e) {
+                        // Lost the race for these nights
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                });
+            }
+            go.countDown();
+        } finally {
+            pool.shutdown();
+        }
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES), "updates did not finish");
+
+        assertEquals(0, errors.get());
+        assertTrue(moved.get() > 0, "the booking was never moved");
+        assertTrue(booked.get() > 0, "no other booking was made");
+        for (Long roomId : roomIds) {
+            assertConsistent(roomId);
+        }
+    }
+
+    private static void awaitQueuedOnRoomLock(Thread thread) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!(thread.getState() == Thread.State.WAITING && Arrays.stream(thread.getStackTrace())
+                .anyMatch(frame -> frame.getClassName().equals(RoomLocks.class.getName())))) {
+            assertTrue(System.nanoTime() < deadline, "the update never queued on the room lock");
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+        }
+    }
+
+    private void assertConsistent(Long roomId) {
+        List<BookedRoom> bookings = new ArrayList<>(bookingRepository.findByRoomId(roomId));
+        bookings.sort(Comparator.comparing(BookedRoom::getCheckInDate));
+        for (int i = 1; i < bookings.size(); i++) {
+            assertFalse(bookings.get(i).getCheckInDate().isBefore(bookings.get(i - 1).getCheckOutDate()),
+                    "bookings in room " + roomId + " overlap");
+        }
+        for (BookedRoom booking : bookings) {
+            assertEquals(ChronoUnit.DAYS.between(booking.getCheckInDate(), booking.getCheckOutDate()),
+                    inventoryRepository.countByBookingId(booking.getBookingId()),
+                    "inventory nights of booking " + booking.getBookingId());
+        }
+
+        OccupancyCalendar calendar = occupancyRepository.findById(roomId).orElseThrow().getCalendar();
+        for (LocalDate night = START; night.isBefore(START.plusDays(WINDOW + 1)); night = night.plusDays(1)) {
+            LocalDate day = night;
+            boolean sold = bookings.stream()
+                    .anyMatch(booking -> !day.isBefore(booking.getCheckInDate()) && day.isBefore(booking.getCheckOutDate()));
+            assertEquals(sold, !calendar.isFree(day.toEpochDay(), day.plusDays(1).toEpochDay()),
+                    "calendar of room " + roomId + " on " + day);
+        }
+    }
+}
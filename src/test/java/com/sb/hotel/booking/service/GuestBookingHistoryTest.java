@@ -0,0 +1,91 @@
+package com.sb.hotel.booking.service;
+
+import com.sb.hotel.booking.Response.CursorPage;
+import com.sb.hotel.booking.models.BookedRoom;
+import com.sb.hotel.booking.repository.BookingRepository;
+import com.sb.hotel.booking.repository.RoomRepository;
+import com.sb.hotel.booking.response.BookingResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.sb.hotel.booking.BookingFixtures.booking;
+import static com.sb.hotel.booking.BookingFixtures.createRoom;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class GuestBookingHistoryTest {
+
+    private static final LocalDate START = LocalDate.now().plusDays(120);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void pagesThroughAGuestsBookingsIgnoringCase() {
+        Long roomId = createRoom(roomRepository, "HistoryRoom");
+        bookingService.saveBooking(roomId, booking(START.plusDays(10), START.plusDays(12), "Pager@Example.com"));
+        bookingService.saveBooking(roomId, booking(START, START.plusDays(2), "pager@example.com"));
+        bookingService.saveBooking(roomId, booking(START.plusDays(20), START.plusDays(22), "PAGER@example.com"));
+        bookingService.saveBooking(roomId, booking(START.plusDays(30), START.plusDays(32), "someone.else@example.com"));
+
+        CursorPage<BookingResponse> first = bookingService.getBookingsByGuestEmail(" pager@EXAMPLE.com", null, 2);
+        assertEquals(List.of(START, START.plusDays(10)), checkIns(first));
+        assertTrue(first.isHasNext());
+
+        CursorPage<BookingResponse> second = bookingService.getBookingsByGuestEmail("pager@example.com", first.getNextCursor(), 2);
+        assertEquals(List.of(START.plusDays(20)), checkIns(second));
+        assertFalse(second.isHasNext());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void cachedPagesAreDroppedWhenTheGuestsBookingsChange() {
+        Long roomId = createRoom(roomRepository, "HistoryRoom");
+        String code = bookingService.saveBooking(roomId, booking(START, START.plusDays(2), "cached@example.com"));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        assertEquals(1, bookingService.getBookingsByGuestEmail("cached@example.com", null, 10).getContent().size());
+        statistics.clear();
+        assertEquals(1, bookingService.getBookingsByGuestEmail("Cached@Example.com", null, 10).getContent().size());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        bookingService.saveBooking(roomId, booking(START.plusDays(5), START.plusDays(7), "cached@example.com"));
+        assertEquals(2, bookingService.getBookingsByGuestEmail("cached@example.com", null, 10).getContent().size());
+
+        // Moving a booking to another guest changes both guests' histories
+        assertEquals(0, bookingService.getBookingsByGuestEmail("moved@example.com", null, 10).getContent().size());
+        BookedRoom booking = bookingRepository.findByBookingConfirmationCode(code).orElseThrow();
+        assertTrue(bookingService.updateBooking(booking.getBookingId(), booking(START, START.plusDays(2), "moved@example.com")));
+        assertEquals(1, bookingService.getBookingsByGuestEmail("cached@example.com", null, 10).getContent().size());
+        assertEquals(1, bookingService.getBookingsByGuestEmail("moved@example.com", null, 10).getContent().size());
+    }
+
+    @Test
+    void rejectsABlankEmail() {
+        assertThrows(IllegalArgumentException.class, () -> bookingService.getBookingsByGuestEmail(" ", null, 10));
+    }
+
+    private static List<LocalDate> checkIns(CursorPage<BookingResponse> page) {
+        return page.getContent().stream().map(BookingResponse::getCheckInDate).toList();
+    }
+}
@@ -0,0 +1,102 @@
+package com.sb.hotel.booking.service;
+
+import com.sb.hotel.booking.config.CacheConfig;
+import com.sb.hotel.booking.exception.RoomNotAvailableException;
+import com.sb.hotel.booking.repository.BookingRepository;
+import com.sb.hotel.booking.repository.RoomRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static com.sb.hotel.booking.BookingFixtures.booking;
+import static com.sb.hotel.booking.BookingFixtures.createRoom;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class IdempotentBookingTest {
+
+    private static final LocalDate START = LocalDate.now().plusDays(250);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void concurrentDuplicatesBookOnce() throws Exception {
+        Long roomId = createRoom(roomRepository, "IdempotentRoom");
+        String key = UUID.randomUUID().toString();
+        CountDownLatch start = new CountDownLatch(1);
+        Callable<String> request = () -> {
+            start.await();
+            return bookingService.saveBooking(roomId, booking(START, START.plusDays(3)), key);
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = IntStream.range(0, 8).mapToObj(i -> executor.submit(request)).toList();
+            start.countDown();
+            String code = results.get(0).get();
+            for (Future<String> result : results) {
+                assertEquals(code, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, bookingService.getAllBookingsByRoomId(roomId).size());
+    }
+
+    @Test
+    void retriesAreAnsweredFromTheDatabaseOnceTheCacheHasDroppedTheKey() {
+        Long roomId = createRoom(roomRepository, "IdempotentRoom");
+        String key = UUID.randomUUID().toString();
+        String code = bookingService.saveBooking(roomId, booking(START, START.plusDays(3)), key);
+
+        cacheManager.getCache(CacheConfig.IDEMPOTENCY_KEYS).clear();
+
+        assertEquals(code, bookingService.saveBooking(roomId, booking(START, START.plusDays(3)), key));
+        assertEquals(1, bookingService.getAllBookingsByRoomId(roomId).size());
+    }
+
+    @Test
+    void aKeyCannotBeReusedForAnotherRequest() {
+        Long roomId = createRoom(roomRepository, "IdempotentRoom");
+        String key = UUID.randomUUID().toString();
+        bookingService.saveBooking(roomId, booking(START, START.plusDays(3)), key);
+
+        assertThrows(IllegalArgumentException.class, () -> bookingService.saveBooking(roomId, booking(START.plusDays(5), START.plusDays(8)), key));
+        cacheManager.getCache(CacheConfig.IDEMPOTENCY_KEYS).clear();
+        assertThrows(IllegalArgumentException.class, () -> bookingService.saveBooking(roomId, booking(START.plusDays(5), START.plusDays(8)), key));
+    }
+
+    @Test
+    void failuresAreNotRemembered() {
+        Long roomId = createRoom(roomRepository, "IdempotentRoom");
+        String blocking = bookingService.saveBooking(roomId, booking(START, START.plusDays(3)));
+        String key = UUID.randomUUID().toString();
+        assertThrows(RoomNotAvailableException.class, () -> bookingService.saveBooking(roomId, booking(START, START.plusDays(3)), key));
+
+        bookingService.cancelBooking(bookingRepository.findByBookingConfirmationCode(blocking).orElseThrow().getBookingId());
+
+        String code = bookingService.saveBooking(roomId, booking(START, START.plusDays(3)), key);
+        assertEquals(code, bookingService.saveBooking(roomId, booking(START, START.plusDays(3)), key));
+    }
+}
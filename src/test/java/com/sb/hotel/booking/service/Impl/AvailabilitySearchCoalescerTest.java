@@ -0,0 +1,113 @@
+package com.sb.hotel.booking.service.Impl;
+
+import com.sb.hotel.booking.availability.RoomAvailabilityIndex;
+import com.sb.hotel.booking.metrics.HotelMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AvailabilitySearchCoalescerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    // The index is never built, so it knows no room types; these searches name none anyway
+    private final HotelMetrics metrics = new HotelMetrics(registry, new RoomAvailabilityIndex(null, null));
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @Test
+    void identicalSearchesRunningTogetherShareOneRun() throws Exception {
+        AvailabilitySearchCoalescer coalescer = new AvailabilitySearchCoalescer(metrics, Duration.ZERO, 100);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> coalescer.execute("list", "query", () -> {
+                    runs.incrementAndGet();
+                    await(release);
+                    return List.of("room");
+                })));
+            }
+            // Holds the search until every other request has joined it
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (requests(HotelMetrics.COALESCED) < 7) {
+                assertTrue(System.nanoTime() < deadline, "only " + requests(HotelMetrics.COALESCED) + " requests joined the search");
+                Thread.sleep(5);
+            }
+            release.countDown();
+            List<String> first = results.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<List<String>> result : results) {
+                assertSame(first, result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            // Lets the search finish if the wait above gave up
+            release.countDown();
+            pool.shutdown();
+        }
+        assertEquals(1, runs.get());
+        assertEquals(1, requests(HotelMetrics.EXECUTED));
+
+        // Nothing is kept without a result TTL
+        coalescer.execute("list", "query", this::search);
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void resultsAreReusedWithinTheirTtlUntilAChange() {
+        AvailabilitySearchCoalescer coalescer = new AvailabilitySearchCoalescer(metrics, Duration.ofMinutes(1), 100);
+        List<String> first = coalescer.execute("list", "query", this::search);
+
+        assertSame(first, coalescer.execute("list", "query", this::search));
+        coalescer.execute("list", "other query", this::search);
+        coalescer.execute("page", "query", this::search);
+        assertEquals(3, runs.get());
+        assertEquals(1, requests(HotelMetrics.CACHED));
+
+        coalescer.invalidate();
+        coalescer.execute("list", "query", this::search);
+        assertEquals(4, runs.get());
+    }
+
+    @Test
+    void failuresAreNotKept() {
+        AvailabilitySearchCoalescer coalescer = new AvailabilitySearchCoalescer(metrics, Duration.ofMinutes(1), 100);
+        assertThrows(IllegalStateException.class, () -> coalescer.execute("list", "query", () -> {
+            throw new IllegalStateException("database unavailable");
+        }));
+
+        assertEquals(List.of("room"), coalescer.execute("list", "query", this::search));
+    }
+
+    private List<String> search() {
+        runs.incrementAndGet();
+        return List.of("room");
+    }
+
+    private double requests(String outcome) {
+        return registry.find(HotelMetrics.AVAILABILITY_SEARCH_REQUESTS).tag("outcome", outcome).counters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
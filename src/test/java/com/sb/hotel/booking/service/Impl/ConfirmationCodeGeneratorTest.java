@@ -0,0 +1,83 @@
+package com.sb.hotel.booking.service.Impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfirmationCodeGeneratorTest {
+
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+
+    @Test
+    void codesAreUniqueAcrossThreadsWithinOneMillisecond() throws Exception {
+        ConfirmationCodeGenerator generator = new ConfirmationCodeGenerator(7, () -> ConfirmationCodeGenerator.EPOCH_MILLIS + 1000);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<List<String>>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(pool.submit(() -> {
+                List<String> codes = new ArrayList<>();
+                for (int i = 0; i < 20_000; i++) {
+                    codes.add(generator.next());
+                }
+                return codes;
+            }));
+        }
+        Set<String> unique = new HashSet<>();
+        for (Future<List<String>> future : futures) {
+            unique.addAll(future.get());
+        }
+        pool.shutdown();
+
+        assertEquals(160_000, unique.size());
+    }
+
+    @Test
+    void clockSteppingBackDoesNotRepeatCodes() {
+        long[] now = {ConfirmationCodeGenerator.EPOCH_MILLIS + 5000};
+        ConfirmationCodeGenerator generator = new ConfirmationCodeGenerator(1, () -> now[0]);
+        String before = generator.next();
+        now[0] -= 2000;
+        String after = generator.next();
+
+        assertNotEquals(before, after);
+        assertTrue(after.compareTo(before) > 0);
+    }
+
+    @Test
+    void nodesNeverShareCodes() {
+        long now = ConfirmationCodeGenerator.EPOCH_MILLIS + 42;
+        Set<String> codes = new HashSet<>();
+        for (int node = 0; node < 4; node++) {
+            ConfirmationCodeGenerator generator = new ConfirmationCodeGenerator(node, () -> now);
+            for (int i = 0; i < 1000; i++) {
+                codes.add(generator.next());
+            }
+        }
+        assertEquals(4000, codes.size());
+    }
+
+    @Test
+    void codesUseTheBase32Alphabet() {
+        String code = new ConfirmationCodeGenerator(3).next();
+
+        assertEquals(ConfirmationCodeGenerator.CODE_LENGTH, code.length());
+        assertTrue(code.chars().allMatch(c -> ALPHABET.indexOf(c) >= 0), code);
+    }
+
+    @Test
+    void rejectsNodeIdsOutsideTenBits() {
+        assertThrows(IllegalArgumentException.class, () -> new ConfirmationCodeGenerator(1024));
+        assertThrows(IllegalArgumentException.class, () -> new ConfirmationCodeGenerator(-1));
+    }
+}
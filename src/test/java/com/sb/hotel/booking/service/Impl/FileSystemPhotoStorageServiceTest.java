@@ -0,0 +1,70 @@
+package com.sb.hotel.booking.service.Impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileSystemPhotoStorageServiceTest {
+
+    private static final byte[] PHOTO = "not really a jpeg".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path uploadDir;
+
+    @Test
+    void identicalPhotosAreStoredOnceUnderTheirContentHash() throws IOException {
+        FileSystemPhotoStorageService storage = new FileSystemPhotoStorageService(uploadDir.toString());
+
+        String key = storage.store(new ByteArrayInputStream(PHOTO), "image/jpeg");
+        String again = storage.store(new ByteArrayInputStream(PHOTO), "image/jpeg");
+
+        assertEquals(key, again);
+        assertTrue(key.matches("[0-9a-f]{64}\\.jpg"), key);
+        assertEquals(1, storedFiles());
+        Resource photo = storage.load(key).orElseThrow();
+        try (InputStream content = photo.getInputStream()) {
+            assertArrayEquals(PHOTO, content.readAllBytes());
+        }
+    }
+
+    @Test
+    void differentPhotosGetDifferentKeys() throws IOException {
+        FileSystemPhotoStorageService storage = new FileSystemPhotoStorageService(uploadDir.toString());
+
+        String jpeg = storage.store(new ByteArrayInputStream(PHOTO), "image/jpeg");
+        String other = storage.store(new ByteArrayInputStream("another photo".getBytes(StandardCharsets.UTF_8)), "image/png");
+
+        assertNotEquals(jpeg, other);
+        assertTrue(other.endsWith(".png"), other);
+        assertEquals(2, storedFiles());
+    }
+
+    @Test
+    void onlyWellFormedKeysAreLoaded() throws IOException {
+        FileSystemPhotoStorageService storage = new FileSystemPhotoStorageService(uploadDir.toString());
+        storage.store(new ByteArrayInputStream(PHOTO), "image/jpeg");
+
+        assertTrue(storage.load("../../etc/passwd").isEmpty());
+        assertTrue(storage.load(null).isEmpty());
+        assertTrue(storage.load("0".repeat(64) + ".jpg").isEmpty());
+    }
+
+    private long storedFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(uploadDir)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
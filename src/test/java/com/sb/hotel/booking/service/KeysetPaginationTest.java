@@ -0,0 +1,94 @@
+package com.sb.hotel.booking.service;
+
+import com.sb.hotel.booking.Response.CursorPage;
+import com.sb.hotel.booking.Response.RoomResponse;
+import com.sb.hotel.booking.repository.RoomRepository;
+import com.sb.hotel.booking.response.BookingResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.sb.hotel.booking.BookingFixtures.booking;
+import static com.sb.hotel.booking.BookingFixtures.createRoom;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class KeysetPaginationTest {
+
+    // A window no other test books into
+    private static final LocalDate START = LocalDate.now().plusDays(700);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Test
+    void bookingPagesWalkEveryBookingOnceInCheckInOrder() {
+        // Three rooms, so several bookings share a check-in date and the booking ID breaks the tie
+        for (int r = 0; r < 3; r++) {
+            Long roomId = createRoom(roomRepository, "KeysetRoom");
+            for (int day = 0; day < 4; day++) {
+                bookingService.saveBooking(roomId, booking(START.plusDays(day * 2L), START.plusDays(day * 2L + 1)));
+            }
+        }
+
+        List<BookingResponse> walked = new ArrayList<>();
+        String after = null;
+        CursorPage<BookingResponse> page;
+        do {
+            page = bookingService.getBookingsByCheckInDate(START, START.plusDays(10), after, 5);
+            assertTrue(page.getContent().size() <= 5);
+            walked.addAll(page.getContent());
+            after = page.getNextCursor();
+        } while (page.isHasNext());
+
+        assertNull(page.getNextCursor());
+        assertEquals(12, walked.size());
+        List<BookingResponse> sorted = new ArrayList<>(walked);
+        sorted.sort(Comparator.comparing(BookingResponse::getCheckInDate).thenComparing(BookingResponse::getId));
+        assertEquals(sorted, walked);
+        assertEquals(12, walked.stream().map(BookingResponse::getId).distinct().count());
+    }
+
+    @Test
+    void roomPagesFollowOnFromTheLastRoom() {
+        Long first = createRoom(roomRepository, "KeysetRoom");
+        Long second = createRoom(roomRepository, "KeysetRoom");
+
+        String cursor = null;
+        List<Long> ids = new ArrayList<>();
+        CursorPage<RoomResponse> page;
+        do {
+            page = roomService.getRooms(cursor, 2);
+            page.getContent().forEach(room -> ids.add(room.getId()));
+            cursor = page.getNextCursor();
+        } while (page.isHasNext());
+
+        assertTrue(ids.indexOf(first) >= 0 && ids.indexOf(second) == ids.indexOf(first) + 1);
+        List<Long> sorted = new ArrayList<>(ids);
+        sorted.sort(null);
+        assertEquals(sorted, ids);
+        assertFalse(page.isHasNext());
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> bookingService.getBookingsByCheckInDate(START, START.plusDays(1), "not a cursor", 10));
+        assertThrows(IllegalArgumentException.class, () -> roomService.getRooms("%%%", 10));
+    }
+}
@@ -0,0 +1,123 @@
+package com.sb.hotel.booking.service;
+
+import com.sb.hotel.booking.Response.CursorPage;
+import com.sb.hotel.booking.Response.RoomResponse;
+import com.sb.hotel.booking.config.CacheConfig;
+import com.sb.hotel.booking.models.Room;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.sb.hotel.booking.BookingFixtures.booking;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class RoomCacheTest {
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void repeatedLookupsAreServedFromTheCache() throws Exception {
+        Long roomId = addRoom().getId();
+        double hitsBefore = cacheGets(CacheConfig.ROOMS, "hit");
+
+        statistics.clear();
+        roomService.getRoomById(roomId);
+        roomService.getRoomById(roomId);
+        roomService.getRoomById(roomId);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(hitsBefore + 2, cacheGets(CacheConfig.ROOMS, "hit"));
+    }
+
+    @Test
+    void repeatedListingsAreServedFromTheCache() throws Exception {
+        addRoom();
+        double hitsBefore = cacheGets(CacheConfig.ROOM_PAGES, "hit");
+
+        statistics.clear();
+        roomService.getRooms(null, 10);
+        roomService.getRooms(null, 10);
+        roomService.getRooms(null, 10);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(hitsBefore + 2, cacheGets(CacheConfig.ROOM_PAGES, "hit"));
+    }
+
+    @Test
+    void bookingARoomIsVisibleOnTheNextLookup() throws Exception {
+        Long roomId = addRoom().getId();
+        assertFalse(roomService.getRoomById(roomId).orElseThrow().isBooked());
+        assertFalse(listed(roomId).isBooked());
+
+        bookingService.saveBooking(roomId, booking(LocalDate.now().plusDays(3), LocalDate.now().plusDays(5)));
+
+        assertTrue(roomService.getRoomById(roomId).orElseThrow().isBooked());
+        assertTrue(listed(roomId).isBooked());
+    }
+
+    @Test
+    void addedRoomsAppearInTheCachedListing() throws Exception {
+        allListedRooms();
+        Room added = addRoom();
+
+        assertEquals(added.getId(), listed(added.getId()).getId());
+        assertTrue(roomService.getRoomById(added.getId()).isPresent());
+    }
+
+    private RoomResponse listed(Long roomId) {
+        return allListedRooms().stream().filter(room -> room.getId().equals(roomId)).findFirst().orElseThrow();
+    }
+
+    private List<RoomResponse> allListedRooms() {
+        List<RoomResponse> rooms = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<RoomResponse> page = roomService.getRooms(cursor, CursorPage.MAX_SIZE);
+            rooms.addAll(page.getContent());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return rooms;
+    }
+
+    private double cacheGets(String cache, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", result)
+                .functionCounter().count();
+    }
+
+    // Added through the service, which evicts the cached pages; rooms saved through the repository would not be listed
+    private Room addRoom() throws Exception {
+        return roomService.addNewRoom(new MockMultipartFile("photo", new byte[0]), "Cache Hotel", "CacheRoom",
+                BigDecimal.valueOf(90));
+    }
+}
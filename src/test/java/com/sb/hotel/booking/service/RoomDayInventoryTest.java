@@ -0,0 +1,211 @@
+package com.sb.hotel.booking.service;
+
+import com.sb.hotel.booking.Response.RoomResponse;
+import com.sb.hotel.booking.availability.OccupancyCalendar;
+import com.sb.hotel.booking.exception.RoomNotAvailableException;
+import com.sb.hotel.booking.models.BookedRoom;
+import com.sb.hotel.booking.models.Room;
+import com.sb.hotel.booking.repository.BookingRepository;
+import com.sb.hotel.booking.repository.RoomDayInventoryRepository;
+import com.sb.hotel.booking.repository.RoomOccupancyRepository;
+import com.sb.hotel.booking.repository.RoomRepository;
+import com.sb.hotel.booking.request.BatchBookingItem;
+import com.sb.hotel.booking.service.Impl.RoomDayInventoryBackfill;
+import com.sb.hotel.booking.service.Impl.RoomInventory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.sb.hotel.booking.BookingFixtures.booking;
+import static com.sb.hotel.booking.BookingFixtures.createRoom;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@SpringBootTest
+class RoomDayInventoryTest {
+
+    private static final LocalDate START = LocalDate.now().plusDays(60);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private RoomDayInventoryRepository inventoryRepository;
+
+    @Autowired
+    private RoomOccupancyRepository occupancyRepository;
+
+    @Autowired
+    private RoomDayInventoryBackfill backfill;
+
+    @Autowired
+    private RoomInventory roomInventory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void bookingWritesKeepTheInventoryInStep() {
+        Long roomId = createRoom(roomRepository, "InventoryWrites");
+        Long otherRoomId = createRoom(roomRepository, "InventoryWrites");
+        String code = bookingService.saveBooking(roomId, booking(START, START.plusDays(3)));
+        Long bookingId = bookingRepository.findByBookingConfirmationCode(code).orElseThrow().getBookingId();
+        assertEquals(3, inventoryRepository.countByBookingId(bookingId));
+
+        BookedRoom moved = booking(START.plusDays(1), START.plusDays(6));
+        moved.setRoom(roomRepository.findById(otherRoomId).orElseThrow());
+        assertTrue(bookingService.updateBooking(bookingId, moved));
+        assertEquals(5, inventoryRepository.countByBookingId(bookingId));
+        assertTrue(available("InventoryWrites", START, START.plusDays(1)).contains(roomId));
+        assertFalse(available("InventoryWrites", START.plusDays(5), START.plusDays(6)).contains(otherRoomId));
+
+        assertTrue(bookingService.cancelBooking(bookingId));
+        assertEquals(0, inventoryRepository.countByBookingId(bookingId));
+        assertTrue(available("InventoryWrites", START, START.plusDays(6)).contains(otherRoomId));
+
+        List<String> codes = bookingService.saveBookings(List.of(new BatchBookingItem(roomId, START, START.plusDays(2),
+                "Inventory Guest", "inventory@example.com", 1, 0, 1)));
+        Long batchBookingId = bookingRepository.findByBookingConfirmationCode(codes.get(0)).orElseThrow().getBookingId();
+        assertEquals(2, inventoryRepository.countByBookingId(batchBookingId));
+    }
+
+    @Test
+    void roomWithSeveralBookingsIsOnlyAvailableWhenAllNightsAreFree() {
+        Long roomId = createRoom(roomRepository, "InventoryPaged");
+        bookingService.saveBooking(roomId, booking(START, START.plusDays(2)));
+        bookingService.saveBooking(roomId, booking(START.plusDays(10), START.plusDays(12)));
+
+        // The old LEFT JOIN query returned the room here, because one of its bookings does not overlap
+        assertFalse(roomService.getAvailableRooms(START.plusDays(1), START.plusDays(3), "InventoryPaged",
+                PageRequest.of(0, 10)).getContent().stream().anyMatch(room -> room.getId().equals(roomId)));
+        assertEquals(List.of(roomId), roomService.getAvailableRooms(START.plusDays(2), START.plusDays(10), "InventoryPaged",
+                PageRequest.of(0, 10)).getContent().stream().map(RoomResponse::getId).toList());
+    }
+
+    @Test
+    void occupancyCalendarFollowsTheBookings() {
+        Long roomId = createRoom(roomRepository, "InventoryCalendar");
+        String code = bookingService.saveBooking(roomId, booking(START, START.plusDays(3)));
+        Long bookingId = bookingRepository.findByBookingConfirmationCode(code).orElseThrow().getBookingId();
+        assertFalse(calendar(roomId).isFree(START.plusDays(2).toEpochDay(), START.plusDays(4).toEpochDay()));
+        assertThrows(RoomNotAvailableException.class,
+                () -> bookingService.saveBooking(roomId, booking(START.plusDays(2), START.plusDays(4))));
+
+        // Overlaps the booking's own nights only
+        assertTrue(bookingService.updateBooking(bookingId, booking(START.plusDays(1), START.plusDays(4))));
+        OccupancyCalendar moved = calendar(roomId);
+        assertTrue(moved.isFree(START.toEpochDay(), START.plusDays(1).toEpochDay()));
+        assertFalse(moved.isFree(START.plusDays(3).toEpochDay(), START.plusDays(4).toEpochDay()));
+
+        assertTrue(bookingService.cancelBooking(bookingId));
+        assertTrue(calendar(roomId).isFree(START.toEpochDay(), START.plusDays(10).toEpochDay()));
+
+        // Beyond the calendar window, checked against the bookings
+        LocalDate later = START.plusDays(OccupancyCalendar.DAYS);
+        bookingService.saveBooking(roomId, booking(later, later.plusDays(2)));
+        assertThrows(RoomNotAvailableException.class,
+                () -> bookingService.saveBooking(roomId, booking(later.plusDays(1), later.plusDays(3))));
+    }
+
+    @Test
+    void backfillRebuildsTheInventoryFromBookings() {
+        Long roomId = createRoom(roomRepository, "InventoryBackfill");
+        bookingService.saveBooking(roomId, booking(START, START.plusDays(4)));
+        bookingService.saveBooking(roomId, booking(START.plusDays(7), START.plusDays(8)));
+        long nights = inventoryRepository.count();
+
+        inventoryRepository.deleteAllInBatch();
+        assertTrue(available("InventoryBackfill", START, START.plusDays(1)).contains(roomId));
+
+        assertEquals(nights, backfill.rebuild());
+        assertEquals(nights, inventoryRepository.count());
+        assertFalse(available("InventoryBackfill", START, START.plusDays(1)).contains(roomId));
+        assertTrue(available("InventoryBackfill", START.plusDays(4), START.plusDays(7)).contains(roomId));
+    }
+
+    @Test
+    void bookingCancelledDuringABackfillKeepsNoNights() throws Exception {
+        Long roomId = createRoom(roomRepository, "InventoryRebuildCancel");
+        Long lockedRoomId = createRoom(roomRepository, "InventoryRebuildCancel");
+        String code = bookingService.saveBooking(roomId, booking(START, START.plusDays(3)));
+        Long bookingId = bookingRepository.findByBookingConfirmationCode(code).orElseThrow().getBookingId();
+        bookingService.saveBooking(lockedRoomId, booking(START, START.plusDays(2)));
+        // A single range on a single thread: it locks the booking's room, then waits for the room this test holds
+        RoomDayInventoryBackfill singleRange = new RoomDayInventoryBackfill(bookingRepository, roomRepository,
+                inventoryRepository, roomInventory, transactionTemplate, false, 1, Integer.MAX_VALUE);
+        ExecutorService rebuilds = Executors.newSingleThreadExecutor();
+        ExecutorService cancels = Executors.newSingleThreadExecutor(task -> new Thread(task, "inventory-cancel"));
+
+        try {
+            AtomicReference<Future<Long>> rebuild = new AtomicReference<>();
+            AtomicReference<Future<Boolean>> cancel = new AtomicReference<>();
+            // Released well within H2's 2 s lock timeout
+            transactionTemplate.executeWithoutResult(status -> {
+                roomRepository.findByIdForUpdate(lockedRoomId);
+                rebuild.set(rebuilds.submit(singleRange::rebuild));
+                awaitBlockedInDatabase("inventory-backfill-");
+
+                cancel.set(cancels.submit(() -> bookingService.cancelBooking(bookingId)));
+                awaitBlockedInDatabase("inventory-cancel");
+                assertFalse(cancel.get().isDone(), "the cancel did not wait for the rebuild");
+            });
+
+            assertTrue(rebuild.get().get(10, TimeUnit.SECONDS) > 0);
+            assertTrue(cancel.get().get(10, TimeUnit.SECONDS));
+        } finally {
+            rebuilds.shutdown();
+            cancels.shutdown();
+        }
+        assertTrue(bookingRepository.findById(bookingId).isEmpty());
+        assertEquals(0, inventoryRepository.countByBookingId(bookingId));
+        assertTrue(available("InventoryRebuildCancel", START, START.plusDays(3)).contains(roomId));
+    }
+
+    private OccupancyCalendar calendar(Long roomId) {
+        return occupancyRepository.findById(roomId).orElseThrow().getCalendar();
+    }
+
+    private List<Long> available(String roomType, LocalDate checkIn, LocalDate checkOut) {
+        return roomRepository.findAvailableRoomSummaries(checkIn, checkOut, roomType).stream()
+                .map(room -> room.getId()).toList();
+    }
+
+    private static void awaitBlockedInDatabase(String threadNamePrefix) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (System.nanoTime() < deadline) {
+            for (Map.Entry<Thread, StackTraceElement[]> thread : Thread.getAllStackTraces().entrySet()) {
+                if (thread.getKey().getName().startsWith(threadNamePrefix)
+                        && thread.getKey().getState() != Thread.State.RUNNABLE
+                        && Arrays.stream(thread.getValue()).anyMatch(frame -> frame.getClassName().startsWith("org.h2."))) {
+                    return;
+                }
+            }
+            Thread.onSpinWait();
+        }
+        fail("No " + threadNamePrefix + " thread waited for a database lock");
+    }
+}
@@ -0,0 +1,124 @@
+package com.sb.hotel.booking.service;
+
+import com.sb.hotel.booking.Response.RoomResponse;
+import com.sb.hotel.booking.availability.RoomAvailabilityIndex;
+import com.sb.hotel.booking.models.BookedRoom;
+import com.sb.hotel.booking.repository.BookingRepository;
+import com.sb.hotel.booking.repository.RoomRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.sb.hotel.booking.BookingFixtures.booking;
+import static com.sb.hotel.booking.BookingFixtures.createRoom;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class RoomServiceQueryCountTest {
+
+    private static final LocalDate CHECK_IN = LocalDate.now().plusDays(30);
+    private static final LocalDate CHECK_OUT = CHECK_IN.plusDays(3);
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void availableRoomResponsesUseConstantNumberOfStatements() {
+        createRooms("SmallSet", 3);
+        createRooms("LargeSet", 60);
+        availabilityIndex.rebuild();
+
+        long small = countStatements("SmallSet", 3);
+        long large = countStatements("LargeSet", 60);
+
+        assertEquals(small, large);
+        assertTrue(large <= 2, "expected at most 2 statements but was " + large);
+    }
+
+    @Test
+    void sqlFallbackUsesConstantNumberOfStatements() {
+        createRooms("SmallPast", 3);
+        createRooms("LargePast", 60);
+
+        LocalDate pastCheckIn = LocalDate.now().minusDays(10);
+        long small = countStatements("SmallPast", pastCheckIn, 3);
+        long large = countStatements("LargePast", pastCheckIn, 60);
+
+        assertEquals(small, large);
+        assertTrue(large <= 2, "expected at most 2 statements but was " + large);
+    }
+
+    @Test
+    void listingsLoadNoEntities() {
+        createRooms("Listing", 3);
+        availabilityIndex.rebuild();
+        Long roomId = roomService.getAvailableRoomResponses(CHECK_IN, CHECK_OUT, "Listing").get(0).getId();
+
+        statistics.clear();
+        assertFalse(roomService.getAllRooms(PageRequest.of(0, 10)).isEmpty());
+        assertEquals(3, roomService.getAvailableRooms(CHECK_IN, CHECK_OUT, "Listing", PageRequest.of(0, 10)).getTotalElements());
+        assertFalse(roomService.getAllRooms().isEmpty());
+        assertFalse(roomService.getRooms(null, 10).getContent().isEmpty());
+        assertEquals(3, roomService.getAvailableRoomResponses(CHECK_IN, CHECK_OUT, "Listing").size());
+        assertFalse(bookingService.getAllBookings().isEmpty());
+        assertEquals(1, bookingService.getAllBookingsByRoomId(roomId).size());
+
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getSecondLevelCacheHitCount());
+    }
+
+    private long countStatements(String roomType, int expectedRooms) {
+        return countStatements(roomType, CHECK_IN, expectedRooms);
+    }
+
+    private long countStatements(String roomType, LocalDate checkIn, int expectedRooms) {
+        statistics.clear();
+        List<RoomResponse> rooms = roomService.getAvailableRoomResponses(checkIn, checkIn.plusDays(3), roomType);
+        assertEquals(expectedRooms, rooms.size());
+        rooms.forEach(room -> assertEquals(1, room.getBookings().size()));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void createRooms(String roomType, int count) {
+        for (int i = 0; i < count; i++) {
+            Long roomId = createRoom(roomRepository, roomType, BigDecimal.valueOf(100 + i));
+            BookedRoom booking = booking(CHECK_OUT.plusDays(10), CHECK_OUT.plusDays(12), "guest" + i + "@example.com");
+            booking.setBookingConfirmationCode(roomType + "-" + i);
+            booking.setRoom(roomRepository.getReferenceById(roomId));
+            bookingRepository.save(booking);
+        }
+    }
+}